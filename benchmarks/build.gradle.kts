@@ -0,0 +1,19 @@
+plugins {
+    id("wyhash.java-conventions")
+    id("me.champeau.jmh") version "0.7.1"
+}
+
+dependencies {
+    jmhImplementation(project(":lib"))
+}
+
+jmh {
+    jmhVersion.set("1.36")
+}
+
+tasks.register<JavaExec>("tableStatistics") {
+    group = "benchmark"
+    description = "Prints probe lengths & collision rates of the hash tables used in the benchmarks"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("net.techcable.algorithms.hash.wyhash.benchmarks.HashTableStatistics")
+}
@@ -0,0 +1,78 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.techcable.algorithms.hash.wyhash.FixedLengthHasher;
+import net.techcable.algorithms.hash.wyhash.WyHash;
+
+/**
+ * Compares {@link WyHash#forFixedLength(int)} against the general {@link WyHash#wyHash(byte[])},
+ * for keys of the same length.
+ * <p>
+ * Cycles through a pool of random keys, so the JIT cannot constant-fold the input.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FixedLengthBenchmark {
+    private static final long KEY_SEED = 0x5d1e7a3c9b2f4086L;
+    /**
+     * The number of keys in the pool, which must be a power of two.
+     */
+    private static final int KEY_COUNT = 1024;
+
+    @Param({"8", "16", "24", "32"})
+    public int length;
+
+    private WyHash hasher;
+    private FixedLengthHasher fixedLengthHasher;
+    private byte[][] keys;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.hasher = WyHash.of();
+        this.fixedLengthHasher = this.hasher.forFixedLength(length);
+        var rand = new Random(KEY_SEED ^ length);
+        this.keys = new byte[KEY_COUNT][length];
+        for (byte[] key : this.keys) {
+            rand.nextBytes(key);
+        }
+    }
+
+    private byte[] nextKey() {
+        int index = this.index;
+        this.index = (index + 1) & (KEY_COUNT - 1);
+        return this.keys[index];
+    }
+
+    @Benchmark
+    public long wyHash() {
+        return this.hasher.wyHash(nextKey());
+    }
+
+    @Benchmark
+    public long fixedLength() {
+        return this.fixedLengthHasher.hash(nextKey());
+    }
+}
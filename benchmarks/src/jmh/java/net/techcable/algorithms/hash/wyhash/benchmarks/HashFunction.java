@@ -0,0 +1,55 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.util.Arrays;
+
+import net.techcable.algorithms.hash.wyhash.WyHash;
+
+/**
+ * The hash functions being compared.
+ */
+public enum HashFunction {
+    WYHASH {
+        private final WyHash hasher = WyHash.of();
+
+        @Override
+        public long hash(Key key) {
+            return hasher.wyHash(key.bytes());
+        }
+    },
+    ARRAYS_HASH_CODE {
+        @Override
+        public long hash(Key key) {
+            return Arrays.hashCode(key.bytes());
+        }
+    },
+    /**
+     * Uses the {@code hashCode} of the key's Java object,
+     * which is {@link String#hashCode()} for strings and {@link Long#hashCode(long)} for longs.
+     * <p>
+     * This is what a {@code HashMap<String, V>} or {@code HashMap<Long, V>} would use.
+     * NOTE: Strings cache their hash code, so for strings this measures the cached path.
+     * </p>
+     */
+    JDK_HASH_CODE {
+        @Override
+        public long hash(Key key) {
+            return key.value().hashCode();
+        }
+    },
+    MURMUR3 {
+        @Override
+        public long hash(Key key) {
+            return Murmur3.hash(key.bytes(), 0);
+        }
+    },
+    XXHASH64 {
+        @Override
+        public long hash(Key key) {
+            return XxHash64.hash(key.bytes(), 0);
+        }
+    };
+
+    public abstract long hash(Key key);
+}
@@ -0,0 +1,210 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A minimal hash table from {@link Key} to {@code int}, with a fixed capacity.
+ * <p>
+ * The bucket is chosen from the low bits of the hash, with no extra mixing,
+ * so that the quality of the {@link HashFunction} is what gets measured.
+ * </p>
+ */
+public sealed interface HashTable permits HashTable.OpenAddressing, HashTable.Chained {
+    /**
+     * The value returned by {@link #get(Key)} if the key is missing.
+     */
+    int MISSING = -1;
+
+    int get(Key key);
+
+    void put(Key key, int value);
+
+    /**
+     * Count the number of slots (or chain nodes) that must be examined to find the key.
+     *
+     * @param key the key to find
+     * @return the probe length
+     */
+    int probeLength(Key key);
+
+    /**
+     * Get the index of the bucket the key would ideally be stored in.
+     *
+     * @param key the key
+     * @return the home bucket
+     */
+    int homeBucket(Key key);
+
+    void clear();
+
+    enum Kind {
+        OPEN_ADDRESSING,
+        CHAINED;
+
+        public HashTable create(HashFunction hashFunction, int expectedSize) {
+            return switch (this) {
+                case OPEN_ADDRESSING -> new OpenAddressing(hashFunction, expectedSize);
+                case CHAINED -> new Chained(hashFunction, expectedSize);
+            };
+        }
+    }
+
+    /**
+     * Compute a power-of-two capacity with a load factor of at most 0.75.
+     */
+    private static int capacityFor(int expectedSize) {
+        int minCapacity = Math.max(expectedSize + expectedSize / 3, 16);
+        return Integer.highestOneBit(minCapacity - 1) << 1;
+    }
+
+    /**
+     * An open-addressing table with linear probing.
+     */
+    final class OpenAddressing implements HashTable {
+        private final HashFunction hashFunction;
+        private final Key[] keys;
+        private final long[] hashes;
+        private final int[] values;
+        private final int mask;
+        private int size;
+
+        private OpenAddressing(HashFunction hashFunction, int expectedSize) {
+            this.hashFunction = Objects.requireNonNull(hashFunction);
+            int capacity = capacityFor(expectedSize);
+            this.keys = new Key[capacity];
+            this.hashes = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        @Override
+        public int homeBucket(Key key) {
+            return (int) this.hashFunction.hash(key) & this.mask;
+        }
+
+        /**
+         * Find the slot containing the key, or the empty slot where it should be inserted.
+         */
+        private int findSlot(Key key, long hash) {
+            int index = (int) hash & this.mask;
+            while (true) {
+                Key existing = this.keys[index];
+                if (existing == null || (this.hashes[index] == hash && existing.equals(key))) {
+                    return index;
+                }
+                index = (index + 1) & this.mask;
+            }
+        }
+
+        @Override
+        public int get(Key key) {
+            int slot = this.findSlot(key, this.hashFunction.hash(key));
+            return this.keys[slot] != null ? this.values[slot] : MISSING;
+        }
+
+        @Override
+        public void put(Key key, int value) {
+            long hash = this.hashFunction.hash(key);
+            int slot = this.findSlot(key, hash);
+            if (this.keys[slot] == null) {
+                if (this.size >= this.mask) throw new IllegalStateException("Table is full");
+                this.keys[slot] = key;
+                this.hashes[slot] = hash;
+                this.size++;
+            }
+            this.values[slot] = value;
+        }
+
+        @Override
+        public int probeLength(Key key) {
+            int home = this.homeBucket(key);
+            int slot = this.findSlot(key, this.hashFunction.hash(key));
+            return ((slot - home) & this.mask) + 1;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(this.keys, null);
+            this.size = 0;
+        }
+    }
+
+    /**
+     * A table with separate chaining, like {@link java.util.HashMap}
+     * (but without converting long chains into trees).
+     */
+    final class Chained implements HashTable {
+        private static final class Node {
+            private final Key key;
+            private final long hash;
+            private int value;
+            private final Node next;
+
+            private Node(Key key, long hash, int value, Node next) {
+                this.key = key;
+                this.hash = hash;
+                this.value = value;
+                this.next = next;
+            }
+        }
+
+        private final HashFunction hashFunction;
+        private final Node[] buckets;
+        private final int mask;
+
+        private Chained(HashFunction hashFunction, int expectedSize) {
+            this.hashFunction = Objects.requireNonNull(hashFunction);
+            int capacity = capacityFor(expectedSize);
+            this.buckets = new Node[capacity];
+            this.mask = capacity - 1;
+        }
+
+        @Override
+        public int homeBucket(Key key) {
+            return (int) this.hashFunction.hash(key) & this.mask;
+        }
+
+        private Node find(Key key, long hash) {
+            for (Node node = this.buckets[(int) hash & this.mask]; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) return node;
+            }
+            return null;
+        }
+
+        @Override
+        public int get(Key key) {
+            Node node = this.find(key, this.hashFunction.hash(key));
+            return node != null ? node.value : MISSING;
+        }
+
+        @Override
+        public void put(Key key, int value) {
+            long hash = this.hashFunction.hash(key);
+            Node node = this.find(key, hash);
+            if (node != null) {
+                node.value = value;
+            } else {
+                int bucket = (int) hash & this.mask;
+                this.buckets[bucket] = new Node(key, hash, value, this.buckets[bucket]);
+            }
+        }
+
+        @Override
+        public int probeLength(Key key) {
+            long hash = this.hashFunction.hash(key);
+            int length = 1;
+            for (Node node = this.buckets[(int) hash & this.mask]; node != null; node = node.next, length++) {
+                if (node.hash == hash && node.key.equals(key)) return length;
+            }
+            return length;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(this.buckets, null);
+        }
+    }
+}
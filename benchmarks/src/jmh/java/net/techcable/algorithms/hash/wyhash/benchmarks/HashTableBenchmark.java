@@ -0,0 +1,96 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of lookups &amp; inserts into the tables,
+ * for each combination of hash function and key distribution.
+ * <p>
+ * Uses {@link Mode#SampleTime}, so JMH reports the latency percentiles.
+ * </p>
+ *
+ * @see HashTableStatistics for probe lengths and collision rates
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HashTableBenchmark {
+    private static final long KEY_SEED = 0x2f6b8c1d7e3a9054L;
+
+    @Param
+    public HashFunction hashFunction;
+
+    @Param
+    public KeyDistribution distribution;
+
+    @Param
+    public HashTable.Kind tableKind;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Key> keys;
+    private HashTable lookupTable, insertTable;
+    private int lookupIndex, insertIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.keys = distribution.generate(size, KEY_SEED);
+        this.lookupTable = tableKind.create(hashFunction, size);
+        for (int i = 0; i < size; i++) {
+            this.lookupTable.put(keys.get(i), i);
+        }
+        this.insertTable = tableKind.create(hashFunction, size);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetInsertTable() {
+        this.insertTable.clear();
+        this.insertIndex = 0;
+    }
+
+    @Benchmark
+    public int lookup() {
+        int index = this.lookupIndex;
+        this.lookupIndex = index + 1 == size ? 0 : index + 1;
+        return this.lookupTable.get(keys.get(index));
+    }
+
+    /**
+     * Insert the next key, clearing the table once every key has been inserted.
+     * <p>
+     * The occasional clear is included in the samples,
+     * but only affects the very highest percentiles.
+     * </p>
+     */
+    @Benchmark
+    public HashTable insert() {
+        int index = this.insertIndex;
+        if (index == size) {
+            this.insertTable.clear();
+            index = 0;
+        }
+        this.insertTable.put(keys.get(index), index);
+        this.insertIndex = index + 1;
+        return this.insertTable;
+    }
+}
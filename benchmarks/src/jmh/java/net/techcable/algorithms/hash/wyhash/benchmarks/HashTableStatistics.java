@@ -0,0 +1,74 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prints the probe lengths &amp; collision rates of each hash function,
+ * when used in the same tables as {@link HashTableBenchmark}.
+ * <p>
+ * Unlike the benchmark, these numbers are deterministic,
+ * so changes to the hash function show up without any noise.
+ * </p>
+ */
+public final class HashTableStatistics {
+    private static final long KEY_SEED = 0x2f6b8c1d7e3a9054L;
+    private static final int DEFAULT_SIZE = 1 << 16;
+
+    private HashTableStatistics() {}
+
+    public static void main(String[] args) {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        System.out.printf(
+                "%-16s %-17s %-15s %9s %5s %5s %5s %11s %11s%n",
+                "distribution",
+                "hash",
+                "table",
+                "avg probe",
+                "p50",
+                "p99",
+                "max",
+                "bucket coll",
+                "hash coll");
+        for (KeyDistribution distribution : KeyDistribution.values()) {
+            List<Key> keys = distribution.generate(size, KEY_SEED);
+            for (HashFunction hashFunction : HashFunction.values()) {
+                long distinctHashes = keys.stream()
+                        .mapToLong(hashFunction::hash)
+                        .distinct()
+                        .count();
+                for (HashTable.Kind kind : HashTable.Kind.values()) {
+                    HashTable table = kind.create(hashFunction, size);
+                    for (int i = 0; i < keys.size(); i++) {
+                        table.put(keys.get(i), i);
+                    }
+                    int[] probes = keys.stream().mapToInt(table::probeLength).sorted().toArray();
+                    long distinctBuckets =
+                            keys.stream().mapToInt(table::homeBucket).distinct().count();
+                    System.out.printf(
+                            "%-16s %-17s %-15s %9.3f %5d %5d %5d %10.2f%% %10.4f%%%n",
+                            distribution,
+                            hashFunction,
+                            kind,
+                            Arrays.stream(probes).average().orElse(0),
+                            percentile(probes, 0.50),
+                            percentile(probes, 0.99),
+                            probes.length > 0 ? probes[probes.length - 1] : 0,
+                            percent(size - distinctBuckets, size),
+                            percent(size - distinctHashes, size));
+                }
+            }
+        }
+    }
+
+    private static int percentile(int[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min((int) (sorted.length * fraction), sorted.length - 1)];
+    }
+
+    private static double percent(long count, long total) {
+        return total == 0 ? 0 : count * 100.0 / total;
+    }
+}
@@ -0,0 +1,48 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A key stored in one of the benchmark tables.
+ * <p>
+ * Keys are kept both as a Java object and as bytes,
+ * so that each {@link HashFunction} can hash its natural representation
+ * without the cost of conversion being included in the measurements.
+ * </p>
+ *
+ * @param value the key as a {@link String} or {@link Long}
+ * @param bytes the UTF-8 encoding of a string, or the 8 little-endian bytes of a long
+ */
+public record Key(Object value, byte[] bytes) {
+    public static Key of(String string) {
+        return new Key(string, string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Key of(long value) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(value)
+                .array();
+        return new Key(value, bytes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof Key other && Arrays.equals(this.bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return this.value.toString();
+    }
+}
@@ -0,0 +1,76 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Realistic distributions of keys to insert into the tables.
+ */
+public enum KeyDistribution {
+    UUIDS {
+        @Override
+        protected Key nextKey(Random rand, int index) {
+            return Key.of(new UUID(rand.nextLong(), rand.nextLong()).toString());
+        }
+    },
+    /**
+     * Sequential {@code long} IDs, hashed as 8 little-endian bytes.
+     */
+    SEQUENTIAL_LONGS {
+        @Override
+        protected Key nextKey(Random rand, int index) {
+            return Key.of((long) index);
+        }
+    },
+    URLS {
+        private static final String[] HOSTS = {
+            "example.com", "api.example.com", "cdn.example.net", "github.com", "docs.oracle.com", "en.wikipedia.org"
+        };
+        private static final String[] SEGMENTS = {
+            "users", "repos", "issues", "static", "images", "wiki", "api", "v1", "v2", "search", "items", "en"
+        };
+
+        @Override
+        protected Key nextKey(Random rand, int index) {
+            var builder = new StringBuilder("https://").append(HOSTS[rand.nextInt(HOSTS.length)]);
+            for (int depth = rand.nextInt(1, 5); depth > 0; depth--) {
+                builder.append('/').append(SEGMENTS[rand.nextInt(SEGMENTS.length)]);
+            }
+            return Key.of(builder.append("?id=").append(rand.nextInt(1 << 24)).toString());
+        }
+    },
+    SHORT_STRINGS {
+        @Override
+        protected Key nextKey(Random rand, int index) {
+            char[] chars = new char[rand.nextInt(1, 9)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) ('a' + rand.nextInt(26));
+            }
+            return Key.of(new String(chars));
+        }
+    };
+
+    protected abstract Key nextKey(Random rand, int index);
+
+    /**
+     * Generate the specified number of distinct keys.
+     *
+     * @param count the number of keys to generate
+     * @param seed the seed for the random number generator
+     * @return the generated keys, in random order
+     */
+    public List<Key> generate(int count, long seed) {
+        var rand = new Random(seed);
+        Set<Key> keys = new LinkedHashSet<>();
+        for (int index = 0; keys.size() < count; index++) {
+            keys.add(this.nextKey(rand, index));
+        }
+        return new ArrayList<>(keys);
+    }
+}
@@ -0,0 +1,83 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.techcable.algorithms.hash.wyhash.WyHash;
+
+/**
+ * Compares {@link WyHash#wyHash(ByteBuffer[], int, int)} against copying the fragments
+ * into a single array and hashing that, for a network frame made of a heap header and a direct body.
+ *
+ * @see #contiguous() for the cost of hashing the same bytes as a single direct buffer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScatterGatherBenchmark {
+    private static final long DATA_SEED = 0x3c8e1f5a7d2b6049L;
+    private static final int HEADER_SIZE = 16;
+
+    @Param({"64", "1024", "16384"})
+    public int bodySize;
+
+    private WyHash hasher;
+    private ByteBuffer header, body, contiguous;
+    private ByteBuffer[] frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.hasher = WyHash.of();
+        var rand = new Random(DATA_SEED ^ bodySize);
+        byte[] headerBytes = new byte[HEADER_SIZE], bodyBytes = new byte[bodySize];
+        rand.nextBytes(headerBytes);
+        rand.nextBytes(bodyBytes);
+        this.header = ByteBuffer.wrap(headerBytes);
+        this.body = ByteBuffer.allocateDirect(bodySize).put(bodyBytes).clear();
+        this.frame = new ByteBuffer[] {this.header, this.body};
+        this.contiguous = ByteBuffer.allocateDirect(HEADER_SIZE + bodySize)
+                .put(headerBytes)
+                .put(bodyBytes)
+                .clear();
+    }
+
+    @Benchmark
+    public long gather() {
+        return this.hasher.wyHash(this.frame, 0, this.frame.length);
+    }
+
+    /**
+     * The approach that {@link #gather()} replaces.
+     */
+    @Benchmark
+    public long copyThenHash() {
+        byte[] bytes = new byte[HEADER_SIZE + bodySize];
+        this.header.get(0, bytes, 0, HEADER_SIZE);
+        this.body.get(0, bytes, HEADER_SIZE, bodySize);
+        return this.hasher.wyHash(bytes);
+    }
+
+    @Benchmark
+    public long contiguous() {
+        return this.hasher.wyHash(this.contiguous);
+    }
+}
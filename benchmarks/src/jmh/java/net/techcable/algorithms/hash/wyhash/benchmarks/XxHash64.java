@@ -0,0 +1,83 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.benchmarks;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * A baseline implementation of
+ * <a href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">XXH64</a>.
+ */
+/* package */ final class XxHash64 {
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    private static final VarHandle READ_INT_HANDLE =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle READ_LONG_HANDLE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private XxHash64() {}
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    public static long hash(byte[] data, long seed) {
+        final int length = data.length;
+        int offset = 0;
+        long acc;
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            do {
+                v1 = round(v1, (long) READ_LONG_HANDLE.get(data, offset));
+                v2 = round(v2, (long) READ_LONG_HANDLE.get(data, offset + 8));
+                v3 = round(v3, (long) READ_LONG_HANDLE.get(data, offset + 16));
+                v4 = round(v4, (long) READ_LONG_HANDLE.get(data, offset + 24));
+                offset += 32;
+            } while (offset + 32 <= length);
+            acc = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            acc = mergeRound(acc, v1);
+            acc = mergeRound(acc, v2);
+            acc = mergeRound(acc, v3);
+            acc = mergeRound(acc, v4);
+        } else {
+            acc = seed + PRIME64_5;
+        }
+        acc += length;
+        for (; offset + 8 <= length; offset += 8) {
+            acc ^= round(0, (long) READ_LONG_HANDLE.get(data, offset));
+            acc = Long.rotateLeft(acc, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (offset + 4 <= length) {
+            acc ^= ((int) READ_INT_HANDLE.get(data, offset) & 0xFFFFFFFFL) * PRIME64_1;
+            acc = Long.rotateLeft(acc, 23) * PRIME64_2 + PRIME64_3;
+            offset += 4;
+        }
+        for (; offset < length; offset++) {
+            acc ^= (data[offset] & 0xFFL) * PRIME64_5;
+            acc = Long.rotateLeft(acc, 11) * PRIME64_1;
+        }
+        acc ^= acc >>> 33;
+        acc *= PRIME64_2;
+        acc ^= acc >>> 29;
+        acc *= PRIME64_3;
+        acc ^= acc >>> 32;
+        return acc;
+    }
+}
@@ -0,0 +1,28 @@
+plugins {
+    id("wyhash.java-conventions")
+    application
+}
+
+java {
+    toolchain {
+        // NOTE: Need Java 21 for virtual threads
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
+tasks.withType<JavaCompile> {
+    options.release.set(21)
+}
+
+dependencies {
+    implementation(project(":lib"))
+}
+
+application {
+    applicationName = "wyhashsum"
+    mainClass.set("net.techcable.algorithms.hash.wyhash.cli.WyHashSum")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
@@ -0,0 +1,153 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import net.techcable.algorithms.hash.wyhash.WyHash;
+
+/**
+ * Hashes files in parallel, using one virtual thread per file.
+ * <p>
+ * Small files are read into pooled direct buffers.
+ * Large files are memory-mapped instead, in chunks of at most {@link #DEFAULT_CHUNK_SIZE} bytes
+ * that are hashed together as a single input.
+ * </p>
+ */
+/* package */ final class FileHasher implements AutoCloseable {
+    /**
+     * The default size at which files are memory-mapped instead of read.
+     * This is also the size of each pooled buffer.
+     */
+    static final int DEFAULT_MMAP_THRESHOLD = 1 << 20;
+    /**
+     * The default maximum size of a single mapping.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    private final WyHash hasher;
+    private final int mmapThreshold;
+    private final int chunkSize;
+    /**
+     * Limits the number of files open at once,
+     * which also limits the number of pooled buffers.
+     */
+    private final Semaphore openFiles;
+
+    private final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    FileHasher(WyHash hasher, int maxOpenFiles) {
+        this(hasher, maxOpenFiles, DEFAULT_MMAP_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    FileHasher(WyHash hasher, int maxOpenFiles, int mmapThreshold, int chunkSize) {
+        if (maxOpenFiles <= 0) throw new IllegalArgumentException("Invalid maxOpenFiles: " + maxOpenFiles);
+        if (mmapThreshold <= 0 || chunkSize <= 0) throw new IllegalArgumentException();
+        this.hasher = Objects.requireNonNull(hasher);
+        this.openFiles = new Semaphore(maxOpenFiles);
+        this.mmapThreshold = mmapThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Begin hashing the specified file in the background.
+     * <p>
+     * Blocks while the maximum number of files are already being hashed,
+     * so that submitting millions of files doesn't create millions of parked threads.
+     * </p>
+     *
+     * @param path the file to hash
+     * @return the future hash of the file
+     */
+    Future<Long> submit(Path path) {
+        Objects.requireNonNull(path);
+        this.openFiles.acquireUninterruptibly();
+        try {
+            return this.executor.submit(() -> {
+                try {
+                    return this.hashAcquired(path);
+                } finally {
+                    this.openFiles.release();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            this.openFiles.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hash the specified file on the current thread.
+     *
+     * @param path the file to hash
+     * @throws IOException if an error occurs reading the file
+     * @throws InterruptedException if interrupted waiting for other files to close
+     * @return the hash of the file
+     */
+    long hash(Path path) throws IOException, InterruptedException {
+        this.openFiles.acquire();
+        try {
+            return this.hashAcquired(path);
+        } finally {
+            this.openFiles.release();
+        }
+    }
+
+    /**
+     * Hash the specified file, after acquiring a permit from {@link #openFiles}.
+     */
+    private long hashAcquired(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            final long size = channel.size();
+            return size < this.mmapThreshold ? this.hashSmall(channel, (int) size) : this.hashMapped(channel, size);
+        }
+    }
+
+    private long hashSmall(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = this.bufferPool.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(this.mmapThreshold);
+        }
+        try {
+            buffer.clear().limit(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break; // truncated while reading
+            }
+            buffer.flip();
+            return this.hasher.wyHash(buffer);
+        } finally {
+            this.bufferPool.offer(buffer);
+        }
+    }
+
+    private long hashMapped(FileChannel channel, long size) throws IOException {
+        if (size <= this.chunkSize) {
+            return this.hasher.wyHash(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        ByteBuffer[] chunks = new ByteBuffer[Math.toIntExact((size + this.chunkSize - 1) / this.chunkSize)];
+        for (int i = 0; i < chunks.length; i++) {
+            long offset = (long) i * this.chunkSize;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(this.chunkSize, size - offset));
+        }
+        return this.hasher.wyHash(chunks, 0, chunks.length);
+    }
+
+    /**
+     * Wait for all submitted files to finish hashing.
+     */
+    @Override
+    public void close() {
+        this.executor.close();
+    }
+}
@@ -0,0 +1,383 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import net.techcable.algorithms.hash.wyhash.WyHash;
+
+/**
+ * A command line tool to hash files with wyhash,
+ * in the style of {@code sha256sum}.
+ * <p>
+ * Each line of output is the 16 hex digit hash, two spaces, then the path.
+ * Like {@code sha256sum}, a path containing a backslash or line break is escaped,
+ * and the line begins with a backslash.
+ * Directories are hashed recursively.
+ * The output can later be verified with {@code --check}.
+ * </p>
+ */
+public final class WyHashSum {
+    private static final String NAME = "wyhashsum";
+    private static final int HASH_DIGITS = 16;
+    private static final int DEFAULT_JOBS = 64;
+    /**
+     * The number of finished results buffered per job,
+     * so that small files can finish while a large one is still being hashed.
+     */
+    private static final int WINDOW_PER_JOB = 4;
+
+    private static final String USAGE = """
+            Usage: wyhashsum [OPTION]... [FILE|DIR]...
+            Print or check wyhash checksums.
+            With no FILE, or when FILE is -, read standard input.
+
+              -c, --check    read checksums from the FILEs and check them
+              -q, --quiet    don't print OK for each successfully verified file
+              -j, --jobs N   hash at most N files at once (default %d)
+              -h, --help     display this help and exit
+            """
+            .formatted(DEFAULT_JOBS);
+
+    private final PrintStream out, err;
+    private final InputStream in;
+    private final WyHash hasher = WyHash.of();
+    private boolean check, quiet;
+    private int jobs = DEFAULT_JOBS;
+    private int exitCode = 0;
+
+    private WyHashSum(InputStream in, PrintStream out, PrintStream err) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(List.of(args), System.in, System.out, System.err));
+    }
+
+    /**
+     * Run the tool with the specified arguments.
+     *
+     * @param args the command line arguments
+     * @param in the standard input
+     * @param out the standard output
+     * @param err the standard error
+     * @return the exit code
+     */
+    /* package */ static int run(List<String> args, InputStream in, PrintStream out, PrintStream err) {
+        var tool = new WyHashSum(in, out, err);
+        List<String> files = new ArrayList<>();
+        boolean endOfOptions = false;
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (endOfOptions || !arg.startsWith("-") || arg.equals("-")) {
+                files.add(arg);
+                continue;
+            }
+            switch (arg) {
+                case "--" -> endOfOptions = true;
+                case "-c", "--check" -> tool.check = true;
+                case "-q", "--quiet" -> tool.quiet = true;
+                case "-h", "--help" -> {
+                    out.print(USAGE);
+                    return 0;
+                }
+                case "-j", "--jobs" -> {
+                    try {
+                        tool.jobs = Integer.parseInt(i + 1 < args.size() ? args.get(++i) : "");
+                    } catch (NumberFormatException e) {
+                        tool.jobs = -1;
+                    }
+                    if (tool.jobs <= 0) {
+                        err.println(NAME + ": invalid number of jobs");
+                        return 2;
+                    }
+                }
+                default -> {
+                    err.println(NAME + ": unrecognized option '" + arg + "'");
+                    err.print(USAGE);
+                    return 2;
+                }
+            }
+        }
+        if (files.isEmpty()) files.add("-");
+        try (var fileHasher = new FileHasher(tool.hasher, tool.jobs)) {
+            if (tool.check) {
+                tool.checkAll(fileHasher, files);
+            } else {
+                tool.hashAll(fileHasher, files);
+            }
+        }
+        out.flush();
+        return tool.exitCode;
+    }
+
+    private void error(String path, String message) {
+        this.err.println(NAME + ": " + path + ": " + message);
+        this.exitCode = 1;
+    }
+
+    private static String describe(IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return "No such file or directory";
+        } else {
+            return e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+    }
+
+    /**
+     * A file that has been submitted for hashing.
+     */
+    private interface Submitted {
+        Future<Long> hash();
+    }
+
+    /**
+     * Reports results in the order they were submitted, as soon as they are available.
+     * <p>
+     * Holds at most {@link #capacity} unreported results,
+     * waiting for the oldest one once full,
+     * so memory use doesn't grow with the number of files.
+     * </p>
+     */
+    private static final class Window<E extends Submitted> {
+        private final Deque<E> pending = new ArrayDeque<>();
+        private final int capacity;
+        private final Consumer<E> report;
+
+        Window(int capacity, Consumer<E> report) {
+            this.capacity = capacity;
+            this.report = report;
+        }
+
+        void add(E entry) {
+            this.pending.add(entry);
+            while (!this.pending.isEmpty()
+                    && (this.pending.size() > this.capacity || this.pending.peek().hash().isDone())) {
+                this.report.accept(this.pending.poll());
+            }
+        }
+
+        void finish() {
+            while (!this.pending.isEmpty()) {
+                this.report.accept(this.pending.poll());
+            }
+        }
+    }
+
+    private int windowCapacity() {
+        return (int) Math.min((long) this.jobs * WINDOW_PER_JOB, Integer.MAX_VALUE);
+    }
+
+    private record Entry(String path, Future<Long> hash) implements Submitted {}
+
+    private void hashAll(FileHasher fileHasher, List<String> args) {
+        var window = new Window<Entry>(this.windowCapacity(), (entry) -> {
+            try {
+                this.printEntry(HexFormat.of().toHexDigits(await(entry.hash())) + "  ", entry.path(), "");
+            } catch (IOException e) {
+                this.error(entry.path(), describe(e));
+            }
+        });
+        for (String arg : args) {
+            if (arg.equals("-")) {
+                window.add(new Entry(arg, this.hashStdin()));
+                continue;
+            }
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(Files::isRegularFile)
+                            .sorted()
+                            .forEach((file) -> window.add(new Entry(file.toString(), fileHasher.submit(file))));
+                } catch (IOException e) {
+                    this.error(arg, describe(e));
+                } catch (UncheckedIOException e) {
+                    this.error(arg, describe(e.getCause()));
+                }
+            } else {
+                window.add(new Entry(arg, fileHasher.submit(path)));
+            }
+        }
+        window.finish();
+    }
+
+    private void checkAll(FileHasher fileHasher, List<String> manifests) {
+        record Expected(String path, long expected, Future<Long> hash) implements Submitted {}
+        class Counts {
+            int entries, mismatched, unreadable;
+        }
+        var counts = new Counts();
+        var window = new Window<Expected>(this.windowCapacity(), (entry) -> {
+            String status;
+            try {
+                if (await(entry.hash()) == entry.expected()) {
+                    if (this.quiet) return;
+                    status = "OK";
+                } else {
+                    status = "FAILED";
+                    counts.mismatched++;
+                }
+            } catch (IOException e) {
+                this.error(entry.path(), describe(e));
+                status = "FAILED open or read";
+                counts.unreadable++;
+            }
+            this.printEntry("", entry.path(), ": " + status);
+        });
+        int badLines = 0;
+        for (String manifest : manifests) {
+            try (var reader = manifest.equals("-")
+                    ? new BufferedReader(new InputStreamReader(this.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Path.of(manifest), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // an optional '\' if the path is escaped, <hash>,
+                    // then either two spaces or a space and a '*' (binary mode)
+                    final boolean escaped = line.startsWith("\\");
+                    final int start = escaped ? 1 : 0, separator = start + HASH_DIGITS;
+                    if (line.length() < separator + 3
+                            || line.charAt(separator) != ' '
+                            || (line.charAt(separator + 1) != ' ' && line.charAt(separator + 1) != '*')) {
+                        badLines++;
+                        continue;
+                    }
+                    final long expected;
+                    try {
+                        expected = HexFormat.fromHexDigitsToLong(line, start, separator);
+                    } catch (IllegalArgumentException e) {
+                        badLines++;
+                        continue;
+                    }
+                    String path = line.substring(separator + 2);
+                    if (escaped) {
+                        path = unescape(path);
+                        if (path == null) {
+                            badLines++;
+                            continue;
+                        }
+                    }
+                    counts.entries++;
+                    Future<Long> actual = path.equals("-") ? this.hashStdin() : fileHasher.submit(Path.of(path));
+                    window.add(new Expected(path, expected, actual));
+                }
+            } catch (IOException e) {
+                this.error(manifest, describe(e));
+            }
+        }
+        window.finish();
+        this.out.flush();
+        if (badLines > 0) {
+            this.warn(badLines, "line is", "lines are", "improperly formatted");
+        }
+        if (counts.unreadable > 0) {
+            this.warn(counts.unreadable, "listed file", "listed files", "could not be read");
+        }
+        if (counts.mismatched > 0) {
+            this.warn(counts.mismatched, "computed checksum", "computed checksums", "did NOT match");
+        }
+        if (badLines > 0 || counts.unreadable > 0 || counts.mismatched > 0 || counts.entries == 0) {
+            this.exitCode = 1;
+        }
+    }
+
+    /**
+     * Print a line containing a path, escaping the path like {@code sha256sum}.
+     *
+     * @param before the text before the path
+     * @param path the path, which may contain any characters
+     * @param after the text after the path
+     */
+    private void printEntry(String before, String path, String after) {
+        String escaped = escape(path);
+        this.out.println((escaped.equals(path) ? "" : "\\") + before + escaped + after);
+    }
+
+    /**
+     * Escape backslashes and line breaks, so that the path takes up a single line.
+     */
+    private static String escape(String path) {
+        var builder = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            switch (c) {
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                default -> builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reverse {@link #escape(String)}.
+     *
+     * @return the unescaped path, or {@code null} if the escapes are invalid
+     */
+    private static String unescape(String path) {
+        var builder = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (++i == path.length()) return null;
+            switch (path.charAt(i)) {
+                case '\\' -> builder.append('\\');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private void warn(int count, String singular, String plural, String problem) {
+        this.err.println(
+                NAME + ": WARNING: " + count + " " + (count == 1 ? singular : plural) + " " + problem);
+    }
+
+    private Future<Long> hashStdin() {
+        try {
+            return CompletableFuture.completedFuture(this.hasher.wyHash(this.in.readAllBytes()));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static long await(Future<Long> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) throw cause;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+}
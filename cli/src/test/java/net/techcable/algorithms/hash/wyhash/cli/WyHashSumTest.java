@@ -0,0 +1,145 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.techcable.algorithms.hash.wyhash.WyHash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WyHashSumTest {
+    private static final long RAND_SEED = 0x51d2e4a7c03b9f68L;
+
+    @TempDir
+    Path dir;
+
+    private Path randomFile(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(RAND_SEED ^ size).nextBytes(bytes);
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, bytes);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test FileHasher matches WyHash for read, mapped & chunked files")
+    @ValueSource(ints = {0, 1, 17, 63, 64, 65, 1000, 4096, 10_000})
+    public void testFileHasher(int size) throws Exception {
+        Path file = randomFile("data.bin", size);
+        long expected = WyHash.of().wyHash(Files.readAllBytes(file));
+        // tiny thresholds, so that every strategy gets used
+        try (var hasher = new FileHasher(WyHash.of(), 4, 64, 1000)) {
+            assertEquals(expected, hasher.hash(file));
+            assertEquals(expected, hasher.submit(file).get());
+        }
+        try (var hasher = new FileHasher(WyHash.of(), 4)) {
+            assertEquals(expected, hasher.hash(file));
+        }
+    }
+
+    private record Output(int exitCode, String out, String err) {}
+
+    private static Output run(String stdin, String... args) {
+        var out = new ByteArrayOutputStream();
+        var err = new ByteArrayOutputStream();
+        int exitCode = WyHashSum.run(
+                List.of(args),
+                new ByteArrayInputStream(stdin.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        return new Output(exitCode, out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test hashing a directory tree, then checking it")
+    public void testCheck() throws IOException {
+        Path first = randomFile("tree/a.bin", 100);
+        randomFile("tree/nested/b.bin", 5000);
+        randomFile("tree/nested/deeper/c.bin", 0);
+        var hashed = run("", dir.resolve("tree").toString());
+        assertEquals(0, hashed.exitCode(), hashed.err());
+        assertEquals(3, hashed.out().lines().count());
+        long firstHash = WyHash.of().wyHash(Files.readAllBytes(first));
+        assertTrue(hashed.out().startsWith(String.format("%016x  %s", firstHash, first)));
+        // one job at a time, so the output window is full after every file
+        assertEquals(hashed, run("", "--jobs", "1", dir.resolve("tree").toString()));
+
+        Path manifest = Files.writeString(dir.resolve("manifest"), hashed.out());
+        var checked = run("", "--check", manifest.toString());
+        assertEquals(0, checked.exitCode(), checked.err());
+        assertEquals(3, checked.out().lines().filter((line) -> line.endsWith(": OK")).count());
+
+        Files.write(first, new byte[] {1, 2, 3});
+        checked = run("", "-c", "--quiet", manifest.toString());
+        assertEquals(1, checked.exitCode());
+        assertEquals(first + ": FAILED" + System.lineSeparator(), checked.out());
+        assertTrue(checked.err().contains("1 computed checksum did NOT match"));
+    }
+
+    @Test
+    @DisplayName("Test hashing standard input")
+    public void testStdin() {
+        var result = run("abc");
+        assertEquals(0, result.exitCode());
+        assertEquals(
+                String.format("%016x  -%n", WyHash.of().wyHash("abc".getBytes(StandardCharsets.US_ASCII))),
+                result.out());
+    }
+
+    @Test
+    @DisplayName("Test file names containing a newline or backslash are escaped")
+    public void testEscapedNames() throws IOException {
+        Path newline = randomFile("tree/first\nsecond.bin", 10);
+        randomFile("tree/back\\slash.bin", 20);
+        randomFile("tree/plain.bin", 30);
+        var hashed = run("", dir.resolve("tree").toString());
+        assertEquals(0, hashed.exitCode(), hashed.err());
+        List<String> lines = hashed.out().lines().toList();
+        assertEquals(3, lines.size());
+        long newlineHash = WyHash.of().wyHash(Files.readAllBytes(newline));
+        String escaped = newline.toString().replace("\\", "\\\\").replace("\n", "\\n");
+        assertTrue(lines.contains(String.format("\\%016x  %s", newlineHash, escaped)), hashed.out());
+        assertEquals(2, lines.stream().filter((line) -> line.startsWith("\\")).count());
+
+        Path manifest = Files.writeString(dir.resolve("manifest"), hashed.out());
+        var checked = run("", "--check", manifest.toString());
+        assertEquals(0, checked.exitCode(), checked.err());
+        assertTrue(checked.out().contains("\\" + escaped + ": OK"), checked.out());
+
+        // an entry named '-' is checked against standard input
+        Path stdinManifest = Files.writeString(dir.resolve("stdin-manifest"), run("abc").out());
+        var stdin = run("abc", "--check", stdinManifest.toString());
+        assertEquals(0, stdin.exitCode(), stdin.err());
+        assertEquals("-: OK" + System.lineSeparator(), stdin.out());
+    }
+
+    @Test
+    @DisplayName("Test missing files & malformed manifests")
+    public void testErrors() throws IOException {
+        var missing = run("", dir.resolve("missing").toString());
+        assertEquals(1, missing.exitCode());
+        assertTrue(missing.err().contains("No such file or directory"));
+
+        var malformed = run("not a checksum\n", "--check");
+        assertEquals(1, malformed.exitCode());
+        assertTrue(malformed.err().contains("1 line is improperly formatted"));
+
+        assertEquals(2, run("", "--jobs", "0").exitCode());
+        assertEquals(2, run("", "--bogus").exitCode());
+    }
+}
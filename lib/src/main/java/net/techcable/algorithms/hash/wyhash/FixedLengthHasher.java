@@ -0,0 +1,243 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import net.techcable.algorithms.hash.wyhash.utils.MathUtils;
+
+/**
+ * Computes {@link WyHash#wyHash(byte[])} for inputs of a single fixed length.
+ * <p>
+ *     Obtained via {@link WyHash#forFixedLength(int)}.
+ * </p>
+ * <h3>Performance:</h3>
+ * <p>
+ * There is a separate subclass for each of the branches taken by {@link WyHash}:
+ * empty, at most three bytes, at most 16 bytes, at most 48 bytes, and longer inputs.
+ * Everything that depends only on the length is computed ahead of time,
+ * including the read offsets, the number of loop iterations, and the initial mixing of the seed.
+ * </p>
+ */
+public abstract sealed class FixedLengthHasher
+        permits FixedLengthHasher.Empty,
+                FixedLengthHasher.Tiny,
+                FixedLengthHasher.Small,
+                FixedLengthHasher.Medium,
+                FixedLengthHasher.Large {
+    private final WyHash config;
+    /* package */ final int length;
+    /**
+     * The seed after the initial mixing, which only depends on the config.
+     */
+    /* package */ final long seed;
+
+    /* package */ final long secret0, secret1, secret2, secret3;
+    /**
+     * The value of {@code secret0 ^ length}, used to finish the hash.
+     */
+    private final long finalSecret0;
+
+    private FixedLengthHasher(WyHash config, int length) {
+        if (length < 0) throw new IllegalArgumentException("Negative length: " + length);
+        this.config = config;
+        this.length = length;
+        WyHash.Secret secret = config.getSecret();
+        this.secret0 = secret.a();
+        this.secret1 = secret.b();
+        this.secret2 = secret.c();
+        this.secret3 = secret.d();
+        this.seed = config.getSeed() ^ WyHash.wyMix(config.getSeed() ^ secret0, secret1);
+        this.finalSecret0 = secret0 ^ length;
+    }
+
+    /* package */ static FixedLengthHasher create(WyHash config, int length) {
+        Objects.requireNonNull(config);
+        if (length == 0) {
+            return new Empty(config);
+        } else if (length <= 3) {
+            return new Tiny(config, length);
+        } else if (length <= 16) {
+            return new Small(config, length);
+        } else if (length <= 48) {
+            return new Medium(config, length);
+        } else {
+            return new Large(config, length);
+        }
+    }
+
+    /**
+     * Get the length of the inputs accepted by this hasher.
+     *
+     * @return the length of every input
+     */
+    public final int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Get the configuration this hasher was created from.
+     *
+     * @return the configuration
+     */
+    public final WyHash getConfig() {
+        return this.config;
+    }
+
+    /**
+     * Hash the specified key.
+     *
+     * @param key the key to hash
+     * @throws IllegalArgumentException if the key does not have exactly {@link #getLength()} bytes
+     * @return the computed hash code, identical to {@link WyHash#wyHash(byte[])}
+     */
+    public final long hash(byte[] key) {
+        if (key.length != this.length) {
+            throw new IllegalArgumentException("Expected " + this.length + " bytes, but got " + key.length);
+        }
+        return this.hash(Input.ofArray(key, 0, this.length));
+    }
+
+    /**
+     * Hash the {@link #getLength()} bytes of the array
+     * beginning at the specified offset.
+     *
+     * @param array the array to hash
+     * @param offset the start index of where to begin hashing
+     * @throws IndexOutOfBoundsException if the array is too short
+     * @return the computed hash code, identical to {@link WyHash#wyHash(byte[], int, int)}
+     */
+    public final long hash(byte[] array, int offset) {
+        return this.hash(Input.ofArray(array, offset, this.length));
+    }
+
+    /**
+     * Hash the {@link #getLength()} bytes of the buffer
+     * beginning at the specified offset.
+     *
+     * @param buffer the buffer to hash
+     * @param offset the start index of where to begin hashing
+     * @throws IndexOutOfBoundsException if the buffer is too short
+     * @return the computed hash code, identical to {@link WyHash#wyHash(ByteBuffer, int, int)}
+     */
+    public final long hash(ByteBuffer buffer, int offset) {
+        return this.hash(Input.ofBuffer(buffer, offset, this.length));
+    }
+
+    /* package */ abstract long hash(Input input);
+
+    /* package */ final long finish(long a, long b, long seed) {
+        a ^= this.secret1;
+        b ^= seed;
+        long low = a * b;
+        long high = MathUtils.unsignedMultiplyHigh(a, b);
+        return WyHash.wyMix(low ^ this.finalSecret0, high ^ this.secret1);
+    }
+
+    /* package */ static final class Empty extends FixedLengthHasher {
+        /**
+         * There is no input, so the hash is a constant.
+         */
+        private final long result;
+
+        private Empty(WyHash config) {
+            super(config, 0);
+            this.result = this.finish(0, 0, this.seed);
+        }
+
+        @Override
+        long hash(Input input) {
+            Objects.requireNonNull(input);
+            return this.result;
+        }
+    }
+
+    /* package */ static final class Tiny extends FixedLengthHasher {
+        private Tiny(WyHash config, int length) {
+            super(config, length);
+            assert length > 0 && length <= 3;
+        }
+
+        @Override
+        long hash(Input input) {
+            return this.finish(WyHash.readThreeOrFewerBytes(input, this.length), 0, this.seed);
+        }
+    }
+
+    /* package */ static final class Small extends FixedLengthHasher {
+        private final int secondOffset, thirdOffset, fourthOffset;
+
+        private Small(WyHash config, int length) {
+            super(config, length);
+            assert length >= 4 && length <= 16;
+            this.secondOffset = (length >> 3) << 2;
+            this.thirdOffset = length - 4;
+            this.fourthOffset = length - 4 - ((length >> 3) << 2);
+        }
+
+        @Override
+        long hash(Input input) {
+            long a = ((long) input.getInt(0) << 32) | WyHash.readUnsignedInt(input, this.secondOffset);
+            long b = ((long) input.getInt(this.thirdOffset) << 32) | WyHash.readUnsignedInt(input, this.fourthOffset);
+            return this.finish(a, b, this.seed);
+        }
+    }
+
+    /* package */ static final class Medium extends FixedLengthHasher {
+        /**
+         * Whether there are two 16-byte rounds instead of one.
+         */
+        private final boolean twoRounds;
+
+        private Medium(WyHash config, int length) {
+            super(config, length);
+            assert length > 16 && length <= 48;
+            this.twoRounds = length > 32;
+        }
+
+        @Override
+        long hash(Input input) {
+            long seed = this.seed;
+            seed = WyHash.wyMix(input.getLong(0) ^ secret1, input.getLong(8) ^ seed);
+            if (this.twoRounds) {
+                seed = WyHash.wyMix(input.getLong(16) ^ secret1, input.getLong(24) ^ seed);
+            }
+            return this.finish(input.getLong(this.length - 16), input.getLong(this.length - 8), seed);
+        }
+    }
+
+    /* package */ static final class Large extends FixedLengthHasher {
+        private final int largeRounds, smallRounds;
+
+        private Large(WyHash config, int length) {
+            super(config, length);
+            assert length > 48;
+            this.largeRounds = (length - 1) / 48;
+            this.smallRounds = (length - this.largeRounds * 48 - 1) / 16;
+        }
+
+        @Override
+        long hash(Input input) {
+            long seed = this.seed, see1 = seed, see2 = seed;
+            int offset = 0;
+            for (int round = 0; round < this.largeRounds; round++) {
+                seed = WyHash.wyMix(input.getLong(offset) ^ secret1, input.getLong(offset + 8) ^ seed);
+                see1 = WyHash.wyMix(input.getLong(offset + 16) ^ secret2, input.getLong(offset + 24) ^ see1);
+                see2 = WyHash.wyMix(input.getLong(offset + 32) ^ secret3, input.getLong(offset + 40) ^ see2);
+                offset += 48;
+            }
+            seed ^= see1 ^ see2;
+            for (int round = 0; round < this.smallRounds; round++) {
+                seed = WyHash.wyMix(input.getLong(offset) ^ secret1, input.getLong(offset + 8) ^ seed);
+                offset += 16;
+            }
+            return this.finish(input.getLong(this.length - 16), input.getLong(this.length - 8), seed);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FixedLengthHasher[length=" + this.length + ", config=" + this.config + "]";
+    }
+}
@@ -36,11 +36,11 @@ import java.util.Objects;
         Objects.checkFromIndexSize(offset, length, limit);
         if (buffer.hasArray()) {
             // want to avoid introducing a second class if at all possible
-            return ofArray(buffer.array(), buffer.arrayOffset(), limit);
+            return ofArray(buffer.array(), buffer.arrayOffset() + offset, length);
         } else {
             buffer = buffer.duplicate(); // defensive copy
             if (buffer.limit() != limit) throw new ConcurrentModificationException();
-            buffer.limit(length);
+            buffer.limit(offset + length);
             return new BufferInput(buffer, offset);
         }
     }
@@ -122,9 +122,9 @@ import java.util.Objects;
         }
 
         private static final VarHandle BUFFER_READ_INT_HANDLE =
-                MethodHandles.byteBufferViewVarHandle(int.class, WyHash.REQUIRED_BYTE_ORDER);
+                MethodHandles.byteBufferViewVarHandle(int[].class, WyHash.REQUIRED_BYTE_ORDER);
         private static final VarHandle BUFFER_READ_LONG_HANDLE =
-                MethodHandles.byteBufferViewVarHandle(long.class, WyHash.REQUIRED_BYTE_ORDER);
+                MethodHandles.byteBufferViewVarHandle(long[].class, WyHash.REQUIRED_BYTE_ORDER);
 
         @Override
         public int intLength() {
@@ -2,10 +2,14 @@
 
 package net.techcable.algorithms.hash.wyhash;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HexFormat;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -94,22 +98,38 @@ public final class WyHash {
     // Implementation: Ported from C
     //
 
-    private static long wyMix(long a, long b) {
+    /* package */ static long wyMix(long a, long b) {
         long low = a * b;
         long high = MathUtils.unsignedMultiplyHigh(a, b);
         return low ^ high;
     }
 
+    // wyhash64
+    /* package */ static long wyHash64(long a, long b) {
+        a ^= 0xa0761d6478bd642fL;
+        b ^= 0xe7037ed1a0b428dbL;
+        long low = a * b;
+        long high = MathUtils.unsignedMultiplyHigh(a, b);
+        return wyMix(low ^ 0xa0761d6478bd642fL, high ^ 0xe7037ed1a0b428dbL);
+    }
+
     /**
      * The {@link ByteOrder} that is required for the wyhash algorithm.
      */
     public static final ByteOrder REQUIRED_BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
 
     // _wyr3
-    private static long readThreeOrFewerBytes(Input input, int size) {
+    /* package */ static long readThreeOrFewerBytes(Input input, int size) {
         assert size > 0 && size <= 3;
         /* return (((uint64_t)p[0])<<16)|(((uint64_t)p[k>>1])<<8)|p[k-1]; */
-        return (long) input.getByte(0) << 16 | (long) input.getByte(size >> 1) << 8 | input.getByte(size - 1);
+        return (input.getByte(0) & 0xFFL) << 16
+                | (input.getByte(size >> 1) & 0xFFL) << 8
+                | (input.getByte(size - 1) & 0xFFL);
+    }
+
+    // _wyr4, which is unsigned (unlike Input.getInt)
+    /* package */ static long readUnsignedInt(Input input, int index) {
+        return input.getInt(index) & 0xFFFFFFFFL;
     }
 
     /**
@@ -162,6 +182,73 @@ public final class WyHash {
         return wyHash(new State(this), Input.ofBuffer(buffer, startOffset, count));
     }
 
+    /**
+     * Hash {@code count} buffers, beginning at {@code buffers[offset]},
+     * as if they were a single contiguous input.
+     * <p>
+     * Each buffer contributes the bytes from index {@code 0} to its {@link ByteBuffer#limit()},
+     * just like {@link #wyHash(ByteBuffer)}.
+     * The result is identical to hashing the concatenation of all the buffers,
+     * but avoids copying them into a single array first.
+     * Larger inputs are read in place, copying only the few bytes that straddle the boundary between two buffers.
+     * </p>
+     *
+     * @param buffers the buffers to hash
+     * @param offset the index of the first buffer to hash
+     * @param count the number of buffers to hash
+     * @throws IndexOutOfBoundsException if the provided indexes are invalid
+     * @throws NullPointerException if any of the buffers are null
+     * @return the computed hash code
+     */
+    public long wyHash(ByteBuffer[] buffers, int offset, int count) {
+        Objects.checkFromIndexSize(offset, count, buffers.length);
+        long length = 0;
+        for (int i = offset; i < offset + count; i++) {
+            length += buffers[i].limit(); // implicit null check
+        }
+        var state = new GatherState(this, length);
+        for (int i = offset; i < offset + count; i++) {
+            state.update(buffers[i]);
+        }
+        return state.finish();
+    }
+
+    /**
+     * Hash the specified list of buffers,
+     * as if they were a single contiguous input.
+     *
+     * @param buffers the buffers to hash
+     * @throws NullPointerException if any of the buffers are null
+     * @return the computed hash code
+     * @see #wyHash(ByteBuffer[], int, int) for details
+     */
+    public long wyHash(List<ByteBuffer> buffers) {
+        long length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.limit(); // implicit null check
+        }
+        var state = new GatherState(this, length);
+        for (ByteBuffer buffer : buffers) {
+            state.update(buffer);
+        }
+        return state.finish();
+    }
+
+    /**
+     * Get a hasher specialized for inputs of exactly {@code length} bytes.
+     * <p>
+     * The result is always identical to {@link #wyHash(byte[])},
+     * but the checks on the length are resolved ahead of time.
+     * </p>
+     *
+     * @param length the length of every input
+     * @throws IllegalArgumentException if the length is negative
+     * @return a hasher for inputs of the specified length
+     */
+    public FixedLengthHasher forFixedLength(int length) {
+        return FixedLengthHasher.create(this, length);
+    }
+
     /**
      * Represents temporary state of an individual hasher run.
      * <p>
@@ -182,6 +269,216 @@ public final class WyHash {
         }
     }
 
+    /**
+     * The state of hashing several buffers as a single input,
+     * for {@link #wyHash(ByteBuffer[], int, int)}.
+     * <p>
+     * This consumes the input in the same 48 and 16 byte stripes as {@link #wyHashLarge(State, Input)},
+     * reading the stripes inside each buffer directly through {@link Input#ofBuffer(ByteBuffer)}.
+     * Only a stripe that straddles the boundary between two buffers is copied into the scratch array,
+     * along with the final 16 bytes of the input.
+     * </p>
+     * <p>
+     * Inputs of at most {@link #COPY_THRESHOLD} bytes are simply copied into the scratch array,
+     * because the fixed cost of tracking the stripes outweighs the copy.
+     * </p>
+     */
+    private static final class GatherState {
+        private static final VarHandle SCRATCH_READ_LONG_HANDLE =
+                MethodHandles.byteArrayViewVarHandle(long[].class, REQUIRED_BYTE_ORDER);
+        /**
+         * The start of the final 16 bytes in {@link #scratch}.
+         */
+        private static final int TAIL_OFFSET = 48;
+        /**
+         * The maximum length of an input which is copied into the scratch array as a whole.
+         * <p>
+         * Below roughly this size, copying a header &amp; direct body was faster in the
+         * {@code ScatterGatherBenchmark} than reading the body in place.
+         * </p>
+         */
+        private static final int COPY_THRESHOLD = 512;
+
+        private final WyHash config;
+        private final long length;
+        /**
+         * The end of the 48 byte stripes, and the end of the 16 byte stripes that follow them.
+         */
+        private final long largeEnd, smallEnd;
+        /**
+         * The start of the final 16 bytes.
+         */
+        private final long tailStart;
+
+        private long seed, see1, see2;
+        /**
+         * The number of bytes received so far.
+         */
+        private long position;
+        /**
+         * The end of the stripes that have already been hashed.
+         */
+        private long striped;
+        /**
+         * Holds a partial stripe from previous buffers, followed by the final 16 bytes,
+         * or the entire input if it is no longer than {@link #COPY_THRESHOLD}.
+         * <p>
+         * This is read with its own {@link VarHandle} rather than an {@link Input},
+         * so the reads from the buffers themselves only ever see the buffer's own type.
+         * </p>
+         */
+        private final byte[] scratch;
+        /**
+         * The number of bytes of a partial stripe in the scratch array.
+         */
+        private int pending;
+
+        private GatherState(WyHash config, long length) {
+            this.config = config;
+            this.length = length;
+            if (length <= COPY_THRESHOLD) {
+                this.scratch = new byte[(int) length];
+                this.largeEnd = this.smallEnd = this.tailStart = 0;
+            } else {
+                this.scratch = new byte[TAIL_OFFSET + 16];
+                this.largeEnd = (length - 1) / 48 * 48;
+                this.smallEnd = this.largeEnd + (length - this.largeEnd - 1) / 16 * 16;
+                this.tailStart = length - 16;
+            }
+            this.seed = config.initialSeed ^ wyMix(config.initialSeed ^ config.secret0, config.secret1);
+            this.see1 = this.see2 = this.seed;
+        }
+
+        private void update(ByteBuffer buffer) {
+            final int limit = buffer.limit();
+            final long start = this.position;
+            if (limit > this.length - start) throw new ConcurrentModificationException();
+            if (this.length <= COPY_THRESHOLD) {
+                buffer.get(0, this.scratch, (int) start, limit);
+                this.position = start + limit;
+                return;
+            }
+            int index = 0;
+            if (this.pending > 0) {
+                // complete the stripe started by the previous buffers
+                final int size = this.striped < this.largeEnd ? 48 : 16;
+                index = Math.min(size - this.pending, limit);
+                buffer.get(0, this.scratch, this.pending, index);
+                this.pending += index;
+                if (this.pending == size) {
+                    this.hashScratchStripe();
+                    this.pending = 0;
+                }
+            }
+            if (this.pending == 0 && this.striped < this.smallEnd) {
+                final Input input = Input.ofBuffer(buffer, 0, limit);
+                if (this.striped < this.largeEnd) {
+                    index = this.hashLargeStripes(input, index, limit);
+                }
+                if (this.striped >= this.largeEnd) {
+                    index = this.hashSmallStripes(input, index, limit);
+                }
+                if (this.striped < this.smallEnd && index < limit) {
+                    // begin a stripe that continues into the next buffer
+                    this.pending = limit - index;
+                    buffer.get(index, this.scratch, 0, this.pending);
+                }
+            }
+            final long end = start + limit;
+            if (end > this.tailStart) {
+                final long tailIndex = Math.max(start, this.tailStart);
+                buffer.get(
+                        (int) (tailIndex - start),
+                        this.scratch,
+                        TAIL_OFFSET + (int) (tailIndex - this.tailStart),
+                        (int) (end - tailIndex));
+            }
+            this.position = end;
+        }
+
+        /**
+         * Hash as many of the 48 byte stripes as fit in the buffer.
+         * <p>
+         * The state is kept in local variables, which the JIT can keep in registers
+         * even though the reads may be from off-heap memory.
+         * </p>
+         *
+         * @return the index after the last stripe
+         */
+        private int hashLargeStripes(Input input, int index, int limit) {
+            final long secret1 = this.config.secret1, secret2 = this.config.secret2, secret3 = this.config.secret3;
+            final int end = index + (int) Math.min(limit - index, this.largeEnd - this.striped) / 48 * 48;
+            long seed = this.seed, see1 = this.see1, see2 = this.see2;
+            for (int i = index; i < end; i += 48) {
+                seed = wyMix(input.getLong(i) ^ secret1, input.getLong(i + 8) ^ seed);
+                see1 = wyMix(input.getLong(i + 16) ^ secret2, input.getLong(i + 24) ^ see1);
+                see2 = wyMix(input.getLong(i + 32) ^ secret3, input.getLong(i + 40) ^ see2);
+            }
+            this.seed = seed;
+            this.see1 = see1;
+            this.see2 = see2;
+            this.finishStripes(end - index);
+            return end;
+        }
+
+        /**
+         * Hash as many of the 16 byte stripes as fit in the buffer.
+         *
+         * @return the index after the last stripe
+         */
+        private int hashSmallStripes(Input input, int index, int limit) {
+            final long secret1 = this.config.secret1;
+            final int end = index + (int) Math.min(limit - index, this.smallEnd - this.striped) / 16 * 16;
+            long seed = this.seed;
+            for (int i = index; i < end; i += 16) {
+                seed = wyMix(input.getLong(i) ^ secret1, input.getLong(i + 8) ^ seed);
+            }
+            this.seed = seed;
+            this.finishStripes(end - index);
+            return end;
+        }
+
+        private long readScratch(int index) {
+            return (long) SCRATCH_READ_LONG_HANDLE.get(this.scratch, index);
+        }
+
+        /**
+         * Hash the stripe in the scratch array, which straddled two or more buffers.
+         */
+        private void hashScratchStripe() {
+            final WyHash config = this.config;
+            this.seed = wyMix(readScratch(0) ^ config.secret1, readScratch(8) ^ this.seed);
+            if (this.striped < this.largeEnd) {
+                this.see1 = wyMix(readScratch(16) ^ config.secret2, readScratch(24) ^ this.see1);
+                this.see2 = wyMix(readScratch(32) ^ config.secret3, readScratch(40) ^ this.see2);
+                this.finishStripes(48);
+            } else {
+                this.finishStripes(16);
+            }
+        }
+
+        private void finishStripes(int count) {
+            boolean wasLarge = this.striped < this.largeEnd;
+            this.striped += count;
+            if (wasLarge && this.striped == this.largeEnd) {
+                this.seed ^= this.see1 ^ this.see2;
+            }
+        }
+
+        private long finish() {
+            if (this.position != this.length) throw new ConcurrentModificationException();
+            final WyHash config = this.config;
+            if (this.length <= COPY_THRESHOLD) {
+                return config.wyHash(this.scratch);
+            }
+            long a = readScratch(TAIL_OFFSET) ^ config.secret1;
+            long b = readScratch(TAIL_OFFSET + 8) ^ this.seed;
+            long low = a * b;
+            long high = MathUtils.unsignedMultiplyHigh(a, b);
+            return wyMix(low ^ config.secret0 ^ this.length, high ^ config.secret1);
+        }
+    }
+
     private long wyHash(State state, Input section) {
         final long fullLength = section.length();
         assert fullLength >= 0;
@@ -190,10 +487,10 @@ public final class WyHash {
             final int length = (int) fullLength;
             if (length >= 4) {
                 /* a=(_wyr4(p)<<32)|_wyr4(p+((len>>3)<<2)) */
-                state.a = ((long) section.getInt(0) << 32) | ((long) section.getInt((length >> 3) << 2));
+                state.a = ((long) section.getInt(0) << 32) | readUnsignedInt(section, (length >> 3) << 2);
                 /*  b=(_wyr4(p+len-4)<<32)|_wyr4(p+len-4-((len>>3)<<2)) */
                 state.b = (long) section.getInt(length - 4) << 32
-                        | (long) section.getInt(length - 4 - ((length >> 3) << 2));
+                        | readUnsignedInt(section, length - 4 - ((length >> 3) << 2));
             } else if (length > 0) {
                 state.a = readThreeOrFewerBytes(section, length);
                 state.b = 0;
@@ -0,0 +1,324 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Merkle tree of the pages of a mutable {@link ByteBuffer},
+ * which can be cheaply updated after small writes.
+ * <p>
+ *     Each leaf is the {@link WyHash} of a single page, and each internal node combines its two children.
+ *     After writing to the buffer, call {@link #markDirty(int, int)} with the modified range.
+ *     The next {@link #refresh()} re-hashes only the dirty pages and their ancestors,
+ *     in parallel if there are many of them.
+ * </p>
+ * <p>
+ *     To track a file, use a {@link java.nio.MappedByteBuffer} from
+ *     {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long)}.
+ *     Like any {@link ByteBuffer}, a region is limited to {@link Integer#MAX_VALUE} bytes (just under 2 GiB).
+ *     Larger files must be split into several regions, with one tree each.
+ * </p>
+ * <h3>Diffing replicas:</h3>
+ * <p>
+ *     The nodes are numbered like a binary heap: the root is node {@code 1},
+ *     and the children of node {@code n} are {@code 2n} and {@code 2n + 1}.
+ *     {@link #diff(NodeSource)} walks both trees one level at a time,
+ *     only descending into nodes whose hashes differ.
+ *     This finds the differing pages in {@code O(changes * log(pages))},
+ *     with one round trip per level of the tree.
+ *     The remote side answers each request with {@link #nodeHashes(int[])}.
+ * </p>
+ * <p>
+ *     This class is thread-safe, but writes to the buffer itself are the caller's responsibility.
+ *     A diff never holds the lock while waiting for the other tree,
+ *     so two trees can safely diff against each other concurrently.
+ * </p>
+ */
+public final class WyMerkleTree {
+    /**
+     * The minimum number of dirty nodes before they are hashed in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final WyHash hasher;
+    private final FixedLengthHasher pageHasher;
+    private final ByteBuffer region;
+    private final int size, pageSize, pageCount;
+    /**
+     * The number of leaves, which is the page count rounded up to a power of two.
+     * <p>
+     * The leaf of page {@code p} is node {@code leafCount + p}.
+     * Any extra leaves are padding, and are always zero.
+     * </p>
+     */
+    private final int leafCount;
+
+    private final long[] nodes;
+    private final BitSet dirtyPages;
+
+    private WyMerkleTree(WyHash hasher, ByteBuffer region, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        this.hasher = Objects.requireNonNull(hasher, "Null hasher");
+        this.pageHasher = hasher.forFixedLength(pageSize);
+        this.region = region.duplicate(); // shares the contents, not the position or limit
+        this.size = this.region.limit();
+        this.pageSize = pageSize;
+        this.pageCount = (int) (((long) this.size + pageSize - 1) / pageSize);
+        this.leafCount = this.pageCount <= 1 ? 1 : Integer.highestOneBit(this.pageCount - 1) << 1;
+        if (this.leafCount <= 0) throw new IllegalArgumentException("Too many pages: " + this.pageCount);
+        this.nodes = new long[this.leafCount * 2];
+        this.dirtyPages = new BitSet(this.pageCount);
+        this.dirtyPages.set(0, this.pageCount);
+        this.refresh();
+    }
+
+    /**
+     * Build a tree over the specified buffer,
+     * from index {@code 0} to its {@link ByteBuffer#limit()}.
+     *
+     * @param hasher the hash configuration
+     * @param region the buffer to track
+     * @param pageSize the size of each page, in bytes
+     * @throws IllegalArgumentException if the page size is not positive
+     * @return the newly built tree
+     */
+    public static WyMerkleTree of(@NotNull WyHash hasher, @NotNull ByteBuffer region, int pageSize) {
+        return new WyMerkleTree(hasher, region, pageSize);
+    }
+
+    /**
+     * Get the size of each page in bytes.
+     * <p>
+     * The final page may be shorter if the size of the region is not a multiple of this.
+     * </p>
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Get the number of pages in the region.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return this.pageCount;
+    }
+
+    /**
+     * Mark the pages overlapping the specified range as modified.
+     *
+     * @param offset the start of the modified range
+     * @param length the length of the modified range
+     * @throws IndexOutOfBoundsException if the range is outside the region
+     */
+    public synchronized void markDirty(int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, this.size);
+        if (length == 0) return;
+        this.dirtyPages.set(offset / this.pageSize, (offset + length - 1) / this.pageSize + 1);
+    }
+
+    /**
+     * Mark every page as modified.
+     */
+    public synchronized void markAllDirty() {
+        this.dirtyPages.set(0, this.pageCount);
+    }
+
+    /**
+     * Re-hash the dirty pages and their ancestors.
+     *
+     * @return the number of pages that were re-hashed
+     */
+    public synchronized int refresh() {
+        int[] dirty = this.dirtyPages.stream().toArray();
+        if (dirty.length == 0) return 0;
+        parallelIfLarge(dirty)
+                .forEach((page) -> this.nodes[this.leafCount + page] = this.hashPage(page));
+        // convert to node indexes, then walk upwards one level at a time
+        int[] level = dirty;
+        for (int i = 0; i < level.length; i++) {
+            level[i] += this.leafCount;
+        }
+        while (level[0] > 1) {
+            level = parents(level);
+            parallelIfLarge(level).forEach((node) -> this.nodes[node] = this.combine(node));
+        }
+        this.dirtyPages.clear();
+        return dirty.length;
+    }
+
+    /**
+     * Get the deduplicated parents of the specified sorted nodes.
+     */
+    private static int[] parents(int[] sortedNodes) {
+        int[] result = new int[sortedNodes.length];
+        int count = 0;
+        for (int node : sortedNodes) {
+            int parent = node >>> 1;
+            if (count == 0 || result[count - 1] != parent) {
+                result[count++] = parent;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static IntStream parallelIfLarge(int[] values) {
+        IntStream stream = IntStream.of(values);
+        return values.length >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+    }
+
+    private long hashPage(int page) {
+        final int start = page * this.pageSize;
+        final int length = Math.min(this.pageSize, this.size - start);
+        if (length == this.pageSize) {
+            return this.pageHasher.hash(this.region, start);
+        } else {
+            return this.hasher.wyHash(this.region, start, length);
+        }
+    }
+
+    private long combine(int node) {
+        return WyHash.wyHash64(this.nodes[node * 2], this.nodes[node * 2 + 1]);
+    }
+
+    /**
+     * Get the hash of the entire region, refreshing any dirty pages first.
+     *
+     * @return the hash of the root node
+     */
+    public synchronized long rootHash() {
+        this.refresh();
+        return this.nodes[1];
+    }
+
+    /**
+     * Get the hash of a single page, refreshing any dirty pages first.
+     *
+     * @param page the index of the page
+     * @throws IndexOutOfBoundsException if the page does not exist
+     * @return the hash of the page
+     */
+    public synchronized long pageHash(int page) {
+        Objects.checkIndex(page, this.pageCount);
+        this.refresh();
+        return this.nodes[this.leafCount + page];
+    }
+
+    /**
+     * Get the hashes of the specified nodes, refreshing any dirty pages first.
+     * <p>
+     * This answers the requests of a remote {@link #diff(NodeSource)}.
+     * </p>
+     *
+     * @param nodeIndexes the indexes of the nodes
+     * @throws IndexOutOfBoundsException if any of the nodes do not exist
+     * @return the hash of each node
+     */
+    public synchronized long[] nodeHashes(int[] nodeIndexes) {
+        this.refresh();
+        long[] result = new long[nodeIndexes.length];
+        for (int i = 0; i < nodeIndexes.length; i++) {
+            int node = nodeIndexes[i];
+            if (node < 1 || node >= this.nodes.length) throw new IndexOutOfBoundsException(node);
+            result[i] = this.nodes[node];
+        }
+        return result;
+    }
+
+    /**
+     * Find the pages that differ from another tree
+     * with the same hash configuration, page size, and page count.
+     *
+     * @param other the other tree
+     * @throws IllegalArgumentException if the trees have a different layout
+     * @return the sorted indexes of the differing pages
+     */
+    public int[] diff(@NotNull WyMerkleTree other) {
+        if (!other.hasher.equals(this.hasher) || other.pageSize != this.pageSize || other.pageCount != this.pageCount) {
+            throw new IllegalArgumentException("Trees have different layouts");
+        }
+        try {
+            return this.diff(other::nodeHashes);
+        } catch (IOException e) {
+            throw new AssertionError("Local trees never throw IOException", e);
+        }
+    }
+
+    /**
+     * Find the pages that differ from a (possibly remote) tree
+     * with the same hash configuration, page size, and page count.
+     * <p>
+     * The source is queried once for each level of the tree,
+     * and only for the children of nodes that differ.
+     * The lock is only held while reading the local hashes of each level, never while querying the source.
+     * Pages modified by another thread during the diff may or may not be reported.
+     * </p>
+     *
+     * @param remote the source of the other tree's node hashes
+     * @throws IOException if the remote source fails
+     * @return the sorted indexes of the differing pages
+     */
+    public int[] diff(@NotNull NodeSource remote) throws IOException {
+        int[] frontier = {1};
+        while (true) {
+            long[] ours = this.nodeHashes(frontier);
+            long[] theirs = remote.nodeHashes(frontier);
+            if (theirs.length != frontier.length) {
+                throw new IllegalStateException("Expected " + frontier.length + " hashes, got " + theirs.length);
+            }
+            int count = 0;
+            for (int i = 0; i < frontier.length; i++) {
+                if (ours[i] != theirs[i]) {
+                    frontier[count++] = frontier[i];
+                }
+            }
+            if (count == 0) {
+                return new int[0];
+            } else if (frontier[0] >= this.leafCount) {
+                // reached the leaves, padding never differs
+                return Arrays.stream(frontier, 0, count)
+                        .map((node) -> node - this.leafCount)
+                        .filter((page) -> page < this.pageCount)
+                        .toArray();
+            }
+            int[] children = new int[count * 2];
+            for (int i = 0; i < count; i++) {
+                children[i * 2] = frontier[i] * 2;
+                children[i * 2 + 1] = frontier[i] * 2 + 1;
+            }
+            frontier = children;
+        }
+    }
+
+    /**
+     * A source of node hashes for {@link #diff(NodeSource)},
+     * typically a network request answered by {@link #nodeHashes(int[])} on a replica.
+     */
+    @FunctionalInterface
+    public interface NodeSource {
+        /**
+         * Get the hashes of the specified nodes.
+         *
+         * @param nodeIndexes the indexes of the nodes
+         * @throws IOException if an error occurs communicating with the source
+         * @return the hash of each node, in the same order
+         */
+        long[] nodeHashes(int[] nodeIndexes) throws IOException;
+    }
+
+    @Override
+    public String toString() {
+        return "WyMerkleTree[pageSize=" + this.pageSize + ", pageCount=" + this.pageCount + "]";
+    }
+}
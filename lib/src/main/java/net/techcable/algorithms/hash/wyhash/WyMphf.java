@@ -0,0 +1,494 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.jetbrains.annotations.NotNull;
+
+import net.techcable.algorithms.hash.wyhash.utils.MathUtils;
+
+/**
+ * A minimal perfect hash function over a static set of keys,
+ * mapping each of the {@code n} keys to a distinct index in {@code [0, n)}.
+ * <p>
+ *     Construction follows <a href="https://arxiv.org/abs/1702.03154">BBHash</a>.
+ *     Each key is hashed exactly once with {@link WyHash},
+ *     and the resulting 64-bit fingerprint is remixed to pick a position in each level.
+ *     Keys that collide with another key in a level fall through to the next one.
+ *     The few keys left after {@link #MAX_LEVELS} levels are stored in a sorted fallback table.
+ * </p>
+ * <p>
+ *     With the default {@linkplain Builder#withGamma(double) gamma} of {@code 1.0},
+ *     this uses a little over 3 bits per key.
+ * </p>
+ * <h3>Serialization:</h3>
+ * <p>
+ *     The function is always backed by its serialized form,
+ *     so {@link #fromByteBuffer(ByteBuffer)} never needs to copy anything.
+ *     In particular, it is safe to use a {@link java.nio.MappedByteBuffer}.
+ *     The format is a sequence of little-endian {@code long}s:
+ * </p>
+ * <ol>
+ *     <li>The magic number {@code "WYMPHF01"}</li>
+ *     <li>The number of keys</li>
+ *     <li>The seed and the four {@link WyHash.Secret} values used to fingerprint keys</li>
+ *     <li>The number of levels, the number of fallback keys, and the number of words in the bit array</li>
+ *     <li>The size (in bits) of each level</li>
+ *     <li>The bit array of all the levels</li>
+ *     <li>The rank of every 512-bit block of the bit array</li>
+ *     <li>The sorted fingerprints of the fallback keys</li>
+ * </ol>
+ */
+public final class WyMphf {
+    /**
+     * The maximum number of levels before keys are moved to the fallback table.
+     */
+    public static final int MAX_LEVELS = 32;
+
+    /**
+     * The default value of {@link Builder#withGamma(double)}.
+     */
+    public static final double DEFAULT_GAMMA = 1.0;
+
+    private static final long MAGIC = 0x3130464850_4d5957L; // "WYMPHF01"
+    private static final int HEADER_LONGS = 10;
+    private static final int WORDS_PER_RANK_BLOCK = 8;
+
+    private final ByteBuffer data;
+    private final WyHash hasher;
+    private final long numKeys;
+    private final long[] levelSizes;
+    private final LongBuffer bits, ranks, fallback;
+    private final long fallbackStart;
+
+    private WyMphf(ByteBuffer data) {
+        this.data = data;
+        LongBuffer longs = data.asLongBuffer();
+        if (data.limit() % Long.BYTES != 0 || longs.limit() < HEADER_LONGS || longs.get(0) != MAGIC) {
+            throw new IllegalArgumentException("Invalid WyMphf data: Bad header");
+        }
+        this.numKeys = longs.get(1);
+        this.hasher = WyHash.of()
+                .withSeed(longs.get(2))
+                .withSecret(new WyHash.Secret(longs.get(3), longs.get(4), longs.get(5), longs.get(6)));
+        final int numLevels = checkCount(longs.get(7)), numFallback = checkCount(longs.get(8));
+        final int numWords = checkCount(longs.get(9)), numRanks = (int) rankBlocks(numWords);
+        if (numKeys < 0 || numLevels > MAX_LEVELS) {
+            throw new IllegalArgumentException("Invalid WyMphf data: Bad counts");
+        }
+        long expectedLongs = Math.addExact((long) HEADER_LONGS + numLevels, numWords);
+        expectedLongs = Math.addExact(expectedLongs, Math.addExact((long) numRanks, numFallback));
+        if (expectedLongs != longs.limit()) {
+            throw new IllegalArgumentException("Invalid WyMphf data: Unexpected length " + data.limit());
+        }
+        this.levelSizes = new long[numLevels];
+        long totalBits = 0;
+        for (int level = 0; level < numLevels; level++) {
+            long size = longs.get(HEADER_LONGS + level);
+            if (size <= 0 || size % Long.SIZE != 0) {
+                throw new IllegalArgumentException("Invalid WyMphf data: Bad level size " + size);
+            }
+            this.levelSizes[level] = size;
+            try {
+                totalBits = Math.addExact(totalBits, size);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid WyMphf data: Bad level sizes", e);
+            }
+        }
+        if (totalBits != Math.multiplyExact((long) numWords, Long.SIZE)) {
+            throw new IllegalArgumentException("Invalid WyMphf data: Bad level sizes");
+        }
+        int offset = HEADER_LONGS + numLevels;
+        this.bits = longs.slice(offset, numWords);
+        offset += numWords;
+        this.ranks = longs.slice(offset, numRanks);
+        offset += numRanks;
+        this.fallback = longs.slice(offset, numFallback);
+        this.fallbackStart = numWords == 0 ? 0 : this.rank((long) numWords * Long.SIZE - 1) + lastBit(numWords);
+        if (this.fallbackStart + numFallback != numKeys) {
+            throw new IllegalArgumentException("Invalid WyMphf data: Bad key count");
+        }
+    }
+
+    /**
+     * Check that a count from the header is small enough to index a buffer.
+     */
+    private static int checkCount(long count) {
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid WyMphf data: Bad count " + count);
+        }
+        return (int) count;
+    }
+
+    private long lastBit(long numWords) {
+        return this.bits.get((int) numWords - 1) >>> 63;
+    }
+
+    /**
+     * Load a function from its serialized form,
+     * without copying it.
+     * <p>
+     * The data is read from the buffer's position to its limit.
+     * Modifying the buffer afterwards will corrupt the function.
+     * </p>
+     *
+     * @param buffer the serialized function
+     * @throws IllegalArgumentException if the data is not valid
+     * @return the loaded function
+     * @see #toByteBuffer() for the reverse operation
+     */
+    public static WyMphf fromByteBuffer(@NotNull ByteBuffer buffer) {
+        return new WyMphf(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Get a read-only view of the serialized form of this function.
+     *
+     * @return the serialized function
+     * @see #fromByteBuffer(ByteBuffer) for the reverse operation
+     */
+    public ByteBuffer toByteBuffer() {
+        return this.data.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Write the serialized form of this function to the specified channel.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if an error occurs writing
+     */
+    public void writeTo(@NotNull WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = this.toByteBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Get the number of keys in this function.
+     *
+     * @return the number of keys
+     */
+    public long size() {
+        return this.numKeys;
+    }
+
+    /**
+     * Get the index of the specified key.
+     * <p>
+     * If the key was not part of the original set,
+     * the result is either {@code -1} or an arbitrary index.
+     * </p>
+     *
+     * @param key the key to lookup
+     * @return the index of the key, in the range {@code [0, size())}
+     */
+    public long lookup(byte[] key) {
+        return this.lookupFingerprint(this.hasher.wyHash(key));
+    }
+
+    /**
+     * Get the index of the UTF-8 encoding of the specified key.
+     *
+     * @param key the key to lookup
+     * @return the index of the key, in the range {@code [0, size())}
+     * @see #lookup(byte[]) for details
+     */
+    public long lookup(@NotNull String key) {
+        return this.lookup(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long lookupFingerprint(long fingerprint) {
+        long levelStart = 0;
+        for (int level = 0; level < this.levelSizes.length; level++) {
+            final long size = this.levelSizes[level];
+            final long bitIndex = levelStart + levelPosition(fingerprint, level, size);
+            if ((this.bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) != 0) {
+                return this.rank(bitIndex);
+            }
+            levelStart += size;
+        }
+        int low = 0, high = this.fallback.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = this.fallback.get(mid);
+            if (value < fingerprint) {
+                low = mid + 1;
+            } else if (value > fingerprint) {
+                high = mid - 1;
+            } else {
+                return this.fallbackStart + mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Count the number of set bits before the specified index.
+     */
+    private long rank(long bitIndex) {
+        final int wordIndex = (int) (bitIndex >>> 6);
+        final int blockStart = wordIndex & -WORDS_PER_RANK_BLOCK;
+        long result = this.ranks.get(blockStart / WORDS_PER_RANK_BLOCK);
+        for (int i = blockStart; i < wordIndex; i++) {
+            result += Long.bitCount(this.bits.get(i));
+        }
+        return result + Long.bitCount(this.bits.get(wordIndex) & ((1L << bitIndex) - 1));
+    }
+
+    private static long levelPosition(long fingerprint, int level, long size) {
+        return MathUtils.unsignedMultiplyHigh(WyHash.wyHash64(fingerprint, level), size);
+    }
+
+    private static long rankBlocks(long numWords) {
+        return (numWords + WORDS_PER_RANK_BLOCK - 1) / WORDS_PER_RANK_BLOCK;
+    }
+
+    /**
+     * Create a new builder with the default configuration.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Configures the construction of a {@link WyMphf}.
+     */
+    public static final class Builder {
+        private static final int MAX_ATTEMPTS = 16;
+
+        private WyHash hasher = WyHash.of();
+        private double gamma = DEFAULT_GAMMA;
+        private boolean parallel = true;
+
+        private Builder() {}
+
+        /**
+         * Use the specified hash configuration to fingerprint keys.
+         * <p>
+         * The seed may be changed if two distinct keys have the same 64-bit fingerprint.
+         * </p>
+         *
+         * @param hasher the hash configuration
+         * @return this builder
+         */
+        public Builder withHasher(@NotNull WyHash hasher) {
+            this.hasher = Objects.requireNonNull(hasher, "Null hasher");
+            return this;
+        }
+
+        /**
+         * Set the ratio of bits to keys in each level.
+         * <p>
+         * Larger values make building and lookup faster, at the cost of more space.
+         * </p>
+         *
+         * @param gamma the ratio of bits to keys, at least {@code 1.0}
+         * @throws IllegalArgumentException if gamma is less than one
+         * @return this builder
+         */
+        public Builder withGamma(double gamma) {
+            if (!(gamma >= 1.0 && gamma <= 64.0)) {
+                throw new IllegalArgumentException("Invalid gamma: " + gamma);
+            }
+            this.gamma = gamma;
+            return this;
+        }
+
+        /**
+         * Set whether to build the levels in parallel,
+         * using the common {@link java.util.concurrent.ForkJoinPool}.
+         *
+         * @param parallel whether to build in parallel
+         * @return this builder
+         */
+        public Builder withParallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * Build a function over the UTF-8 encoding of the specified keys.
+         *
+         * @param keys the keys, which must be distinct
+         * @throws IllegalArgumentException if any of the keys are duplicates
+         * @return the function
+         */
+        public WyMphf buildFromStrings(@NotNull Collection<String> keys) {
+            return this.build(keys.stream()
+                    .map((key) -> key.getBytes(StandardCharsets.UTF_8))
+                    .toList());
+        }
+
+        /**
+         * Build a function over the specified keys.
+         *
+         * @param keys the keys, which must be distinct
+         * @throws IllegalArgumentException if any of the keys are duplicates
+         * @return the function
+         */
+        public WyMphf build(@NotNull List<byte[]> keys) {
+            WyHash hasher = this.hasher;
+            List<byte[]> previousCollision = null;
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                final WyHash currentHasher = hasher;
+                if (previousCollision != null
+                        && currentHasher.wyHash(previousCollision.get(0))
+                                == currentHasher.wyHash(previousCollision.get(1))) {
+                    // a real 64-bit collision should not survive a change of seed
+                    throw new IllegalStateException("Keys collide regardless of seed: "
+                            + Arrays.toString(previousCollision.get(0)) + " and "
+                            + Arrays.toString(previousCollision.get(1)));
+                }
+                long[] fingerprints = this.stream(IntStream.range(0, keys.size()))
+                        .mapToLong((i) -> currentHasher.wyHash(keys.get(i)))
+                        .toArray();
+                if (this.parallel) {
+                    Arrays.parallelSort(fingerprints);
+                } else {
+                    Arrays.sort(fingerprints);
+                }
+                int duplicate = findDuplicate(fingerprints);
+                if (duplicate < 0) {
+                    return this.buildLevels(hasher, fingerprints);
+                }
+                // two different keys have the same fingerprint, need a different seed
+                previousCollision = findCollision(hasher, keys, fingerprints[duplicate]);
+                hasher = hasher.withSeed(WyHash.wyHash64(hasher.getSeed(), attempt));
+            }
+            throw new IllegalStateException("Unable to find a seed without collisions");
+        }
+
+        private static int findDuplicate(long[] sortedFingerprints) {
+            for (int i = 1; i < sortedFingerprints.length; i++) {
+                if (sortedFingerprints[i - 1] == sortedFingerprints[i]) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Find two distinct keys with the specified fingerprint.
+         *
+         * @throws IllegalArgumentException if the keys are actually duplicates
+         */
+        private static List<byte[]> findCollision(WyHash hasher, List<byte[]> keys, long fingerprint) {
+            List<byte[]> matching = new ArrayList<>();
+            for (byte[] key : keys) {
+                if (hasher.wyHash(key) != fingerprint) continue;
+                for (byte[] other : matching) {
+                    if (Arrays.equals(key, other)) {
+                        throw new IllegalArgumentException("Duplicate key: " + Arrays.toString(key));
+                    }
+                }
+                matching.add(key);
+            }
+            if (matching.size() < 2) throw new AssertionError("Fingerprints changed while building");
+            return matching.subList(0, 2);
+        }
+
+        private IntStream stream(IntStream stream) {
+            return this.parallel ? stream.parallel() : stream;
+        }
+
+        private LongStream stream(long[] values) {
+            LongStream stream = Arrays.stream(values);
+            return this.parallel ? stream.parallel() : stream;
+        }
+
+        private long levelSize(int remaining) {
+            long words = (long) Math.ceil(remaining * this.gamma / Long.SIZE);
+            return Math.max(words, 1) * Long.SIZE;
+        }
+
+        private WyMphf buildLevels(WyHash hasher, long[] fingerprints) {
+            List<long[]> levels = new ArrayList<>();
+            long[] remaining = fingerprints;
+            while (remaining.length > 0 && levels.size() < MAX_LEVELS) {
+                final int level = levels.size();
+                final long size = this.levelSize(remaining.length);
+                if (size / Long.SIZE > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Too many keys: " + fingerprints.length);
+                }
+                AtomicLongArray seen = new AtomicLongArray((int) (size / Long.SIZE));
+                AtomicLongArray collided = new AtomicLongArray(seen.length());
+                this.stream(remaining).forEach((fingerprint) -> {
+                    final long position = levelPosition(fingerprint, level, size);
+                    final int word = (int) (position >>> 6);
+                    final long mask = 1L << position;
+                    if ((seen.getAndAccumulate(word, mask, (a, b) -> a | b) & mask) != 0) {
+                        collided.getAndAccumulate(word, mask, (a, b) -> a | b);
+                    }
+                });
+                long[] words = new long[seen.length()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = seen.get(i) & ~collided.get(i);
+                }
+                levels.add(words);
+                remaining = this.stream(remaining)
+                        .filter((fingerprint) -> {
+                            final long position = levelPosition(fingerprint, level, size);
+                            return (collided.get((int) (position >>> 6)) & (1L << position)) != 0;
+                        })
+                        .toArray();
+            }
+            // parallel streams preserve encounter order, so this is still sorted
+            return serialize(hasher, fingerprints.length, levels, remaining);
+        }
+
+        private static WyMphf serialize(WyHash hasher, long numKeys, List<long[]> levels, long[] fallback) {
+            final long numWords = levels.stream().mapToLong((words) -> words.length).sum();
+            final long numRanks = rankBlocks(numWords);
+            final long totalLongs = HEADER_LONGS + levels.size() + numWords + numRanks + fallback.length;
+            if (totalLongs > Integer.MAX_VALUE / Long.BYTES) {
+                throw new IllegalArgumentException("Too many keys: " + numKeys);
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) totalLongs * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            LongBuffer longs = data.asLongBuffer();
+            WyHash.Secret secret = hasher.getSecret();
+            longs.put(MAGIC).put(numKeys).put(hasher.getSeed());
+            longs.put(secret.toArray());
+            longs.put(levels.size()).put(fallback.length).put(numWords);
+            for (long[] words : levels) {
+                longs.put((long) words.length * Long.SIZE);
+            }
+            for (long[] words : levels) {
+                longs.put(words);
+            }
+            long rank = 0;
+            int wordIndex = 0;
+            for (long[] words : levels) {
+                for (long word : words) {
+                    if (wordIndex++ % WORDS_PER_RANK_BLOCK == 0) {
+                        longs.put(rank);
+                    }
+                    rank += Long.bitCount(word);
+                }
+            }
+            longs.put(fallback);
+            if (longs.hasRemaining()) throw new AssertionError();
+            return new WyMphf(data);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WyMphf[size=" + this.numKeys + ", levels=" + this.levelSizes.length + ", bytes=" + this.data.limit()
+                + "]";
+    }
+}
@@ -0,0 +1,71 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedLengthHasherTest {
+    private static final long RAND_SEED = 0x1c7e5a93d04b62f8L;
+    private static final int TRIALS = 8;
+
+    private static final List<WyHash> CONFIGS = List.of(
+            WyHash.of(),
+            WyHash.of().withSeed(42),
+            WyHash.of()
+                    .withSeed(-7)
+                    .withSecret(new WyHash.Secret(
+                            0x2d358dccaa6c78a5L, 0x8bb84b93962eacc9L, 0x4b33a62ed433d4a3L, 0x4d5a2da51de1aa47L)));
+
+    static IntStream lengths() {
+        return IntStream.rangeClosed(0, 200);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test FixedLengthHasher matches wyHash")
+    @MethodSource("lengths")
+    public void testMatchesWyHash(int length) {
+        var rand = new Random(RAND_SEED ^ length);
+        for (WyHash config : CONFIGS) {
+            var hasher = config.forFixedLength(length);
+            assertEquals(length, hasher.getLength());
+            for (int trial = 0; trial < TRIALS; trial++) {
+                byte[] key = new byte[length];
+                rand.nextBytes(key);
+                long expected = config.wyHash(key);
+                assertEquals(expected, hasher.hash(key));
+
+                final int offset = 1 + rand.nextInt(16);
+                byte[] padded = new byte[length + 32];
+                rand.nextBytes(padded);
+                System.arraycopy(key, 0, padded, offset, length);
+                assertEquals(expected, hasher.hash(padded, offset));
+                assertEquals(expected, hasher.hash(ByteBuffer.wrap(padded), offset));
+                var direct = ByteBuffer.allocateDirect(padded.length);
+                direct.put(padded);
+                assertEquals(expected, hasher.hash(direct, offset));
+                assertEquals(expected, config.wyHash(direct, offset, length));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test FixedLengthHasher rejects inputs of the wrong length")
+    public void testWrongLength() {
+        var hasher = WyHash.of().forFixedLength(16);
+        assertThrows(IllegalArgumentException.class, () -> hasher.hash(new byte[15]));
+        assertThrows(IllegalArgumentException.class, () -> hasher.hash(new byte[17]));
+        assertThrows(IndexOutOfBoundsException.class, () -> hasher.hash(new byte[20], 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> hasher.hash(ByteBuffer.allocate(20), 5));
+        assertThrows(IllegalArgumentException.class, () -> WyHash.of().forFixedLength(-1));
+    }
+}
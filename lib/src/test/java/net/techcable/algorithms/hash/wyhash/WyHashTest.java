@@ -4,7 +4,9 @@ package net.techcable.algorithms.hash.wyhash;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.IntStream;
@@ -12,6 +14,7 @@ import java.util.stream.IntStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,10 +58,133 @@ public class WyHashTest {
         assertEquals(ascii.length, buffer.limit());
         buffer.put(ascii);
         assertEquals(ascii.length, buffer.position());
-        long actual = WyHash.of().withSeed(data.seed).wyHash(ascii);
+        long actual = WyHash.of().withSeed(data.seed).wyHash(buffer);
         assertEquals(data.expectedHash, actual);
     }
 
+    @ParameterizedTest
+    @DisplayName("Test wyHash for ByteBuffer[] split at every position")
+    @MethodSource("testData")
+    public void wyHashScatteredTest(TestData data) {
+        var ascii = data.getAsciiMsg();
+        var hasher = WyHash.of().withSeed(data.seed);
+        for (int first = 0; first <= ascii.length; first++) {
+            for (int second = first; second <= ascii.length; second++) {
+                ByteBuffer[] buffers = {
+                    ByteBuffer.wrap(Arrays.copyOfRange(ascii, 0, first)),
+                    directCopyOf(Arrays.copyOfRange(ascii, first, second)),
+                    ByteBuffer.wrap(Arrays.copyOfRange(ascii, second, ascii.length)),
+                };
+                final int firstSplit = first, secondSplit = second;
+                assertEquals(
+                        data.expectedHash,
+                        hasher.wyHash(buffers, 0, buffers.length),
+                        () -> "Bad hash for splits " + firstSplit + ", " + secondSplit);
+                assertEquals(data.expectedHash, hasher.wyHash(List.of(buffers)));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test wyHash for many small fragments of random data")
+    @ValueSource(ints = {0, 1, 3, 4, 7, 16, 17, 48, 49, 97, 256, 1000, 4099, 65_537})
+    public void wyHashFragmentedTest(int length) {
+        var rand = new Random(RAND_SEED ^ length);
+        byte[] bytes = new byte[length];
+        rand.nextBytes(bytes);
+        long expected = WyHash.of().wyHash(bytes);
+        List<ByteBuffer> fragments = new ArrayList<>();
+        // padding before and after, to check that offset & count are respected
+        fragments.add(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        int index = 0;
+        while (index < length) {
+            // mix tiny fragments with ones that contain whole stripes
+            int size = Math.min(rand.nextInt(rand.nextBoolean() ? 12 : 300), length - index);
+            byte[] fragment = Arrays.copyOfRange(bytes, index, index + size);
+            fragments.add(rand.nextBoolean() ? ByteBuffer.wrap(fragment) : directCopyOf(fragment));
+            index += size;
+        }
+        fragments.add(ByteBuffer.wrap(new byte[] {4, 5, 6}));
+        ByteBuffer[] array = fragments.toArray(new ByteBuffer[0]);
+        assertEquals(expected, WyHash.of().wyHash(array, 1, array.length - 2));
+        assertEquals(expected, WyHash.of().wyHash(fragments.subList(1, fragments.size() - 1)));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test wyHash for a header & body, split at every position")
+    // long enough to read the body in place, ending at each kind of stripe boundary
+    @ValueSource(ints = {513, 528, 529, 544, 545, 576, 577, 1000})
+    public void wyHashHeaderBodyTest(int length) {
+        var rand = new Random(RAND_SEED ^ length);
+        byte[] bytes = new byte[length];
+        rand.nextBytes(bytes);
+        long expected = WyHash.of().wyHash(bytes);
+        for (int split = 0; split <= length; split++) {
+            ByteBuffer header = ByteBuffer.wrap(Arrays.copyOfRange(bytes, 0, split));
+            ByteBuffer body = directCopyOf(Arrays.copyOfRange(bytes, split, length));
+            final int headerLength = split;
+            assertEquals(
+                    expected,
+                    WyHash.of().wyHash(new ByteBuffer[] {header, body}, 0, 2),
+                    () -> "Bad hash for header of " + headerLength + " bytes");
+        }
+    }
+
+    private static ByteBuffer directCopyOf(byte[] bytes) {
+        var buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test wyHash for non-ASCII bytes")
+    @MethodSource("binaryTestData")
+    public void wyHashBinaryTest(BinaryTestData data) {
+        var hasher = WyHash.of().withSeed(data.seed);
+        assertEquals(data.expectedHash, hasher.wyHash(data.bytes()));
+        assertEquals(data.expectedHash, hasher.forFixedLength(data.bytes().length).hash(data.bytes()));
+    }
+
+    public record BinaryTestData(String hex, long seed, long expectedHash) {
+        public byte[] bytes() {
+            return HexFormat.of().parseHex(this.hex);
+        }
+    }
+
+    /*
+     * Bytes >= 0x80 must be read as unsigned, like the uint8_t/uint32_t reads in the C implementation.
+     * Expected hashes are from the C implementation, with the seed set to the index.
+     */
+    static List<BinaryTestData> binaryTestData() {
+        List<String> inputs = List.of(
+                "0080",
+                "0180",
+                "c3a9",
+                "c2a9",
+                "ff",
+                "e282ac",
+                "f0",
+                "c3a9c3a9",
+                "ffffffff",
+                "e282ace282ac",
+                "e282ace282ace282ace282ac");
+        List<Long> hashes = List.of(
+                0x2cef1c1aa2064453L,
+                0xd1aee72abdf80288L,
+                0xac6bc26a6f1e33bbL,
+                0x38195debb6bdd8e3L,
+                0x7d13dc2edd9b0c7fL,
+                0x1c13b36d52bfbf41L,
+                0x5212782ed1747cd5L,
+                0x3bc04c1d46c0332fL,
+                0xa1797b0d08387906L,
+                0xd894626826b7ceacL,
+                0xdeb08a54e1bd7913L);
+        return IntStream.range(0, inputs.size())
+                .mapToObj((i) -> new BinaryTestData(inputs.get(i), i, hashes.get(i)))
+                .toList();
+    }
+
     public record TestData(String msg, long seed, long expectedHash) {
         public byte[] getAsciiMsg() {
             return this.msg.getBytes(StandardCharsets.US_ASCII);
@@ -0,0 +1,141 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WyMerkleTreeTest {
+    private static final long RAND_SEED = 0x7b1f93ce2a6d4085L;
+
+    private static ByteBuffer randomBuffer(Random rand, int size, boolean direct) {
+        byte[] bytes = new byte[size];
+        rand.nextBytes(bytes);
+        var buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        return buffer.put(bytes).clear();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test WyMerkleTree finds exactly the modified pages")
+    @CsvSource({"0, 64", "1, 64", "100, 1", "4096, 4096", "4097, 4096", "100000, 64", "1048576, 4096"})
+    public void testDiff(int size, int pageSize) {
+        var rand = new Random(RAND_SEED ^ size);
+        var primary = randomBuffer(rand, size, true);
+        var replica = ByteBuffer.allocate(size).put(primary.duplicate()).clear();
+        var primaryTree = WyMerkleTree.of(WyHash.of(), primary, pageSize);
+        var replicaTree = WyMerkleTree.of(WyHash.of(), replica, pageSize);
+        assertEquals(primaryTree.rootHash(), replicaTree.rootHash());
+        assertArrayEquals(new int[0], primaryTree.diff(replicaTree));
+        if (size == 0) return;
+
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5; i++) {
+            int offset = rand.nextInt(size);
+            replica.put(offset, (byte) (replica.get(offset) + 1));
+            replicaTree.markDirty(offset, 1);
+            expected.add(offset / pageSize);
+        }
+        int[] expectedPages = expected.stream().mapToInt(Integer::intValue).toArray();
+        assertNotEquals(primaryTree.rootHash(), replicaTree.rootHash());
+        assertArrayEquals(expectedPages, primaryTree.diff(replicaTree));
+        assertArrayEquals(expectedPages, replicaTree.diff(primaryTree));
+        for (int page : expectedPages) {
+            assertNotEquals(primaryTree.pageHash(page), replicaTree.pageHash(page));
+        }
+        // incremental updates must match a tree built from scratch
+        assertEquals(WyMerkleTree.of(WyHash.of(), replica, pageSize).rootHash(), replicaTree.rootHash());
+    }
+
+    @Test
+    @DisplayName("Test WyMerkleTree only re-hashes dirty pages")
+    public void testRefresh() {
+        var rand = new Random(RAND_SEED);
+        var buffer = randomBuffer(rand, 1 << 20, false);
+        var tree = WyMerkleTree.of(WyHash.of(), buffer, 4096);
+        assertEquals(256, tree.getPageCount());
+        assertEquals(0, tree.refresh());
+        tree.markDirty(4095, 2); // straddles two pages
+        tree.markDirty(8192, 1);
+        assertEquals(3, tree.refresh());
+        tree.markDirty(0, 1 << 20);
+        assertEquals(256, tree.refresh());
+        assertEquals(WyHash.of().wyHash(buffer, 4096, 4096), tree.pageHash(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.markDirty(1 << 20, 1));
+    }
+
+    @Test
+    @DisplayName("Test WyMerkleTree diff queries only the changed branches")
+    public void testRemoteDiff() throws Exception {
+        var rand = new Random(RAND_SEED);
+        var primary = randomBuffer(rand, 1 << 20, true);
+        var replica = ByteBuffer.allocate(1 << 20).put(primary.duplicate()).clear();
+        var primaryTree = WyMerkleTree.of(WyHash.of(), primary, 1024);
+        var replicaTree = WyMerkleTree.of(WyHash.of(), replica, 1024);
+        replica.put(123_456, (byte) ~replica.get(123_456));
+        replicaTree.markDirty(123_456, 1);
+
+        List<int[]> requests = new ArrayList<>();
+        int[] diff = primaryTree.diff((nodes) -> {
+            requests.add(nodes);
+            return replicaTree.nodeHashes(nodes);
+        });
+        assertArrayEquals(new int[] {123_456 / 1024}, diff);
+        // one round trip per level, with only two nodes per level below the root
+        assertEquals(11, requests.size());
+        assertTrue(requests.stream().skip(1).allMatch((nodes) -> nodes.length == 2));
+    }
+
+    @Test
+    @DisplayName("Test WyMerkleTree can diff in both directions concurrently")
+    public void testConcurrentDiff() throws Exception {
+        var rand = new Random(RAND_SEED);
+        var first = randomBuffer(rand, 1 << 16, false);
+        var second = ByteBuffer.allocate(1 << 16).put(first.duplicate()).clear();
+        second.put(12_345, (byte) ~second.get(12_345));
+        var firstTree = WyMerkleTree.of(WyHash.of(), first, 256);
+        var secondTree = WyMerkleTree.of(WyHash.of(), second, 256);
+        int[] expected = {12_345 / 256};
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (var pair : List.of(List.of(firstTree, secondTree), List.of(secondTree, firstTree))) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        // keep both locks busy, so the two diffs interleave
+                        pair.get(0).markAllDirty();
+                        assertArrayEquals(expected, pair.get(0).diff(pair.get(1)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test WyMerkleTree rejects trees with different layouts")
+    public void testDifferentLayouts() {
+        var buffer = ByteBuffer.allocate(8192);
+        var tree = WyMerkleTree.of(WyHash.of(), buffer, 1024);
+        assertThrows(IllegalArgumentException.class, () -> tree.diff(WyMerkleTree.of(WyHash.of(), buffer, 512)));
+        var reseeded = WyMerkleTree.of(WyHash.of().withSeed(42), buffer, 1024);
+        assertThrows(IllegalArgumentException.class, () -> tree.diff(reseeded));
+        assertThrows(IllegalArgumentException.class, () -> WyMerkleTree.of(WyHash.of(), buffer, 0));
+    }
+}
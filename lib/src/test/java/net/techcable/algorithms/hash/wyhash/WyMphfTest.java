@@ -0,0 +1,165 @@
+// SPDX-License-Identifier: Apache-2.0 WITH LLVM-Exception
+
+package net.techcable.algorithms.hash.wyhash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WyMphfTest {
+    private static final long RAND_SEED = 0x6a3f1e0c4b2d8957L;
+
+    private static List<byte[]> randomKeys(int count) {
+        var rand = new Random(RAND_SEED ^ count);
+        // include very short keys, which take a different path through wyhash
+        Set<ByteBuffer> keys = new LinkedHashSet<>();
+        while (keys.size() < count) {
+            byte[] key = new byte[1 + rand.nextInt(20)];
+            rand.nextBytes(key);
+            keys.add(ByteBuffer.wrap(key));
+        }
+        return keys.stream().map(ByteBuffer::array).toList();
+    }
+
+    private static void assertMinimalPerfect(WyMphf mphf, List<byte[]> keys) {
+        assertEquals(keys.size(), mphf.size());
+        BitSet seen = new BitSet(keys.size());
+        for (byte[] key : keys) {
+            long index = mphf.lookup(key);
+            assertTrue(index >= 0 && index < keys.size(), () -> "Index out of range: " + index);
+            assertFalse(seen.get((int) index), () -> "Duplicate index: " + index);
+            seen.set((int) index);
+        }
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test WyMphf maps keys to distinct indexes")
+    @ValueSource(ints = {0, 1, 2, 3, 63, 64, 65, 1000, 100_000})
+    public void testMinimalPerfect(int count) {
+        var keys = randomKeys(count);
+        assertMinimalPerfect(WyMphf.builder().build(keys), keys);
+        assertMinimalPerfect(WyMphf.builder().withParallel(false).build(keys), keys);
+        assertMinimalPerfect(WyMphf.builder().withGamma(2.5).build(keys), keys);
+    }
+
+    @Test
+    @DisplayName("Test WyMphf with every key of one or two bytes")
+    public void testShortKeys() {
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            keys.add(new byte[] {(byte) i});
+            for (int j = 0; j < 256; j++) {
+                keys.add(new byte[] {(byte) i, (byte) j});
+            }
+        }
+        assertMinimalPerfect(WyMphf.builder().build(keys), keys);
+        // these used to collide for every seed, because of sign extension
+        var pair = List.of(new byte[] {0x00, (byte) 0x80}, new byte[] {0x01, (byte) 0x80});
+        assertMinimalPerfect(WyMphf.builder().build(pair), pair);
+    }
+
+    @Test
+    @DisplayName("Test WyMphf with short non-ASCII strings")
+    public void testNonAsciiStrings() {
+        var symbols = List.of("é", "©", "ß", "ü", "€", "£", "¥", "日", "本", "語", "Ω", "π", "ñ", "a", "ab", "abc");
+        var mphf = WyMphf.builder().buildFromStrings(symbols);
+        assertEquals(symbols.size(), symbols.stream().mapToLong(mphf::lookup).distinct().count());
+        assertTrue(symbols.stream().mapToLong(mphf::lookup).allMatch((i) -> i >= 0 && i < symbols.size()));
+    }
+
+    @Test
+    @DisplayName("Test WyMphf is deterministic, regardless of parallelism")
+    public void testDeterministic() {
+        var keys = randomKeys(50_000);
+        var parallel = WyMphf.builder().withParallel(true).build(keys);
+        var sequential = WyMphf.builder().withParallel(false).build(keys);
+        assertEquals(parallel.toByteBuffer(), sequential.toByteBuffer());
+    }
+
+    @Test
+    @DisplayName("Test WyMphf stays close to 3 bits per key")
+    public void testSpace() {
+        var keys = randomKeys(200_000);
+        double bitsPerKey = WyMphf.builder().build(keys).toByteBuffer().remaining() * 8.0 / keys.size();
+        assertTrue(bitsPerKey < 3.5, () -> "Too many bits per key: " + bitsPerKey);
+    }
+
+    @Test
+    @DisplayName("Test WyMphf can be loaded from a memory-mapped file")
+    public void testMemoryMapped(@TempDir Path dir) throws IOException {
+        var keys = randomKeys(10_000);
+        var original = WyMphf.builder().build(keys);
+        Path file = dir.resolve("test.mphf");
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            original.writeTo(channel);
+        }
+        try (var channel = FileChannel.open(file)) {
+            var loaded = WyMphf.fromByteBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            for (byte[] key : keys) {
+                assertEquals(original.lookup(key), loaded.lookup(key));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test WyMphf rejects duplicates & invalid data")
+    public void testInvalid() {
+        var builder = WyMphf.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.buildFromStrings(List.of("US", "FR", "US")));
+        assertThrows(IllegalArgumentException.class, () -> builder.withGamma(0.5));
+        var data = WyMphf.builder().build(randomKeys(100)).toByteBuffer();
+        data.limit(data.limit() - 8);
+        assertThrows(IllegalArgumentException.class, () -> WyMphf.fromByteBuffer(data));
+    }
+
+    @Test
+    @DisplayName("Test WyMphf rejects headers with overflowing counts")
+    public void testOverflowingHeader() {
+        var valid = WyMphf.builder().build(randomKeys(100)).toByteBuffer();
+        int numLongs = valid.remaining() / Long.BYTES;
+        // numWords * 64 wraps to zero, and numWords + numRanks + numFallback wraps to the real length
+        long numWords = Long.MAX_VALUE - (1L << 58) + 1;
+        long numFallback = numLongs - 10 - numWords - (numWords + 7) / 8;
+        assertThrows(IllegalArgumentException.class, () -> loadPatched(valid, 0L, numFallback, numWords));
+        assertThrows(IllegalArgumentException.class, () -> loadPatched(valid, 1L, 0L, Integer.MAX_VALUE + 1L));
+        assertThrows(IllegalArgumentException.class, () -> loadPatched(valid, 1L, -1L, 1L));
+    }
+
+    /**
+     * Load a copy of the data, with the number of levels, fallback keys, and words replaced.
+     */
+    private static WyMphf loadPatched(ByteBuffer data, long numLevels, long numFallback, long numWords) {
+        var copy = ByteBuffer.allocate(data.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        copy.put(data.duplicate()).clear();
+        copy.putLong(7 * Long.BYTES, numLevels);
+        copy.putLong(8 * Long.BYTES, numFallback);
+        copy.putLong(9 * Long.BYTES, numWords);
+        return WyMphf.fromByteBuffer(copy);
+    }
+
+    @Test
+    @DisplayName("Test WyMphf with string keys")
+    public void testStrings() {
+        var codes = List.of("US", "CA", "MX", "FR", "DE", "JP", "CN", "IN", "BR", "ZA");
+        var mphf = WyMphf.builder().buildFromStrings(codes);
+        assertEquals(codes.size(), codes.stream().mapToLong(mphf::lookup).distinct().count());
+        assertTrue(codes.stream().mapToLong(mphf::lookup).allMatch((i) -> i >= 0 && i < codes.size()));
+    }
+}
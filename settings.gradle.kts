@@ -1,2 +1,4 @@
 rootProject.name = "wyhash-java"
 include("lib")
+include("benchmarks")
+include("cli")